@@ -4,7 +4,7 @@ import android.os.Bundle;
 import android.support.design.widget.FloatingActionButton;
 import android.view.View;
 
-import it.sephiroth.android.library.bottomnavigation.app.providers.CustomBadgeProvider;
+import it.sephiroth.android.library.bottomnavigation.BadgeProvider;
 
 public class MainActivityCustomBadge extends MainActivity {
 
@@ -17,7 +17,7 @@ public class MainActivityCustomBadge extends MainActivity {
     protected void initializeBottomNavigation(final Bundle savedInstanceState) {
         getBottomNavigation().setDefaultSelectedIndex(0);
 
-        CustomBadgeProvider provider = (CustomBadgeProvider) getBottomNavigation().getBadgeProvider();
+        final BadgeProvider provider = getBottomNavigation().getBadgeProvider();
         provider.show(R.id.bbn_item3, 1);
         provider.show(R.id.bbn_item5, 3);
     }
@@ -38,14 +38,8 @@ public class MainActivityCustomBadge extends MainActivity {
 
                 final int itemId = getBottomNavigation().getMenuItemId(selectedIndex);
 
-                CustomBadgeProvider provider = (CustomBadgeProvider) getBottomNavigation().getBadgeProvider();
-
-                if (provider.hasBadge(itemId)) {
-                    int count = provider.getBadgeTextCount(itemId);
-                    provider.show(itemId, count + 1);
-                } else {
-                    provider.show(itemId, 1);
-                }
+                final BadgeProvider provider = getBottomNavigation().getBadgeProvider();
+                provider.show(itemId, provider.getCount(itemId) + 1);
             }
         });
     }
@@ -125,12 +125,26 @@ public class MainActivityFragment extends Fragment {
             createAdater(navigationHeight, activity.hasAppBarLayout());
         }
 
-        if (!activity.hasManagedToolbarScroll()) {
+        if (activity instanceof MainActivityNoCoordinator) {
+            if (getUserVisibleHint()) {
+                ((MainActivityNoCoordinator) activity).getScrollCoordinator().attach(mRecyclerView);
+            }
+        } else if (!activity.hasManagedToolbarScroll()) {
             scrollHelper = new ToolbarScrollHelper(activity, activity.getToolbar());
             scrollHelper.initialize(mRecyclerView);
         }
     }
 
+    @Override
+    public void setUserVisibleHint(final boolean isVisibleToUser) {
+        super.setUserVisibleHint(isVisibleToUser);
+
+        // the scroll coordinator follows the list of the current page
+        if (isVisibleToUser && null != mRecyclerView && getActivity() instanceof MainActivityNoCoordinator) {
+            ((MainActivityNoCoordinator) getActivity()).getScrollCoordinator().attach(mRecyclerView);
+        }
+    }
+
     private void createAdater(int height, final boolean hasAppBarLayout) {
         MiscUtils.log(getClass().getSimpleName(), Log.INFO, "createAdapter(" + height + ")");
         mRecyclerView.setHasFixedSize(true);
@@ -1,13 +1,31 @@
 package it.sephiroth.android.library.bottomnavigation.app;
 
+import android.os.Bundle;
+
+import it.sephiroth.android.library.bottomnavigation.ScrollCoordinator;
+
 /**
  * Created by crugnola on 11/28/16.
  * BottomNavigation
  */
 
 public class MainActivityNoCoordinator extends MainActivity {
+    private ScrollCoordinator scrollCoordinator;
+
     @Override
     protected int getActivityLayoutResId() {
         return R.layout.activity_main_no_coordinator;
     }
+
+    @Override
+    protected void initializeUI(final Bundle savedInstanceState) {
+        super.initializeUI(savedInstanceState);
+        // without a CoordinatorLayout the navigation and the toolbar are hidden on scroll by a ScrollCoordinator,
+        // the fragments attach their list to it when they become visible
+        scrollCoordinator = new ScrollCoordinator(getBottomNavigation()).setToolbar(getToolbar());
+    }
+
+    public ScrollCoordinator getScrollCoordinator() {
+        return scrollCoordinator;
+    }
 }
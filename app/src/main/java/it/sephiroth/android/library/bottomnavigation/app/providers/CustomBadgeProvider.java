@@ -8,44 +8,28 @@ import android.graphics.PixelFormat;
 import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 import android.support.annotation.IdRes;
-
-import java.util.HashMap;
+import android.support.annotation.NonNull;
 
 import it.sephiroth.android.library.bottomnavigation.BadgeProvider;
 import it.sephiroth.android.library.bottomnavigation.BottomNavigation;
 
 public class CustomBadgeProvider extends BadgeProvider {
-    private final HashMap<Integer, Integer> countMap = new HashMap<>();
-
     public CustomBadgeProvider(final BottomNavigation navigation) {
         super(navigation);
     }
 
-    public int getBadgeTextCount(@IdRes final int itemId) {
-        if (countMap.containsKey(itemId)) {
-            return countMap.get(itemId);
-        }
-        return 0;
-    }
-
-    public void show(@IdRes final int itemId, int count) {
-        countMap.put(itemId, count);
-        super.show(itemId);
-    }
-
     @Override
-    public void remove(@IdRes final int itemId) {
-        countMap.remove(itemId);
-        super.remove(itemId);
+    protected Drawable newDrawable(@IdRes final int itemId, final int preferredColor) {
+        return new Badge(preferredColor, Math.max(getCount(itemId), 1));
     }
 
     @Override
-    protected Drawable newDrawable(@IdRes final int itemId, final int preferredColor) {
-        int count = 1;
-        if (countMap.containsKey(itemId)) {
-            count = countMap.get(itemId);
+    protected boolean updateDrawable(@IdRes final int itemId, @NonNull final Drawable drawable, final int count) {
+        if (drawable instanceof Badge) {
+            ((Badge) drawable).setCount(Math.max(count, 1));
+            return true;
         }
-        return new Badge(preferredColor, count);
+        return super.updateDrawable(itemId, drawable, count);
     }
 
     public static final class Badge extends Drawable {
@@ -55,6 +39,7 @@ public class CustomBadgeProvider extends BadgeProvider {
         private String text;
         private float top;
         private float left;
+        private float centerX;
 
         public Badge(final int color, final int count) {
             super();
@@ -66,6 +51,12 @@ public class CustomBadgeProvider extends BadgeProvider {
             textPaint.setTextSize(24);
         }
 
+        public void setCount(final int count) {
+            text = String.valueOf(count);
+            updateTextPosition();
+            invalidateSelf();
+        }
+
         @Override
         public void draw(final Canvas canvas) {
             final Rect rect = getBounds();
@@ -78,9 +69,14 @@ public class CustomBadgeProvider extends BadgeProvider {
             super.onBoundsChange(bounds);
             bounds.offset(bounds.width() / 2, -bounds.height() / 2);
             Paint.FontMetrics metrics = textPaint.getFontMetrics();
-            float size = textPaint.measureText(text, 0, text.length());
-            left = (bounds.left + (bounds.width() - size) / 2);
+            centerX = bounds.exactCenterX();
             top = bounds.centerY() - (metrics.ascent / 2) - metrics.descent / 2;
+            updateTextPosition();
+        }
+
+        private void updateTextPosition() {
+            float size = textPaint.measureText(text, 0, text.length());
+            left = centerX - size / 2;
         }
 
         @Override
@@ -0,0 +1,56 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Badge add/remove, count updates and save/restore, for a full (5 items) menu
+ */
+@State (Scope.Thread)
+public class BadgeStoreBenchmark {
+    private static final int[] IDS = {0x7f0e0091, 0x7f0e0092, 0x7f0e0093, 0x7f0e0094, 0x7f0e0095};
+
+    private BadgeStore store;
+    private int[] saved;
+    private int count;
+
+    @Setup
+    public void setup() {
+        store = new BadgeStore();
+        for (int i = 0; i < IDS.length; i++) {
+            store.put(IDS[i], i);
+        }
+        saved = save();
+    }
+
+    @Benchmark
+    public boolean addRemove() {
+        final int id = IDS[2];
+        return store.remove(id) & store.add(id);
+    }
+
+    @Benchmark
+    public boolean updateCount() {
+        return store.put(IDS[3], ++count);
+    }
+
+    @Benchmark
+    public int getCount() {
+        return store.getCount(IDS[4]);
+    }
+
+    /**
+     * Same work as the BadgeProvider saved state
+     */
+    @Benchmark
+    public int[] save() {
+        return store.toArray();
+    }
+
+    @Benchmark
+    public BadgeStore restore() {
+        return BadgeStore.fromArray(saved);
+    }
+}
@@ -0,0 +1,54 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Derived menu colors and item color interpolation
+ */
+@State (Scope.Thread)
+public class ColorBenchmark {
+    private static final int COLOR_ACTIVE = 0xff3f51b5;
+    private static final int COLOR_INACTIVE = 0x803f51b5;
+
+    private ColorTable table;
+    private float fraction;
+
+    @Setup
+    public void setup() {
+        table = new ColorTable(COLOR_INACTIVE, COLOR_ACTIVE);
+    }
+
+    /**
+     * Inactive and disabled colors, as computed by the menu
+     */
+    @Benchmark
+    public int derivedColors() {
+        return ColorTable.halveAlpha(ColorTable.halveAlpha(COLOR_ACTIVE));
+    }
+
+    @Benchmark
+    public ColorTable createTable() {
+        return new ColorTable(COLOR_INACTIVE, COLOR_ACTIVE);
+    }
+
+    /**
+     * Per-frame color lookup
+     */
+    @Benchmark
+    public int tableLookup() {
+        fraction = fraction >= 1 ? 0 : fraction + 1f / ColorTable.STEPS;
+        return table.colorAt(fraction);
+    }
+
+    /**
+     * Per-frame color computation, without the table
+     */
+    @Benchmark
+    public int blend() {
+        fraction = fraction >= 1 ? 0 : fraction + 1f / ColorTable.STEPS;
+        return ColorTable.blend(COLOR_INACTIVE, COLOR_ACTIVE, fraction);
+    }
+}
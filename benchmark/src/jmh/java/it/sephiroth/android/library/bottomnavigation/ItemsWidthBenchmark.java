@@ -0,0 +1,38 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Items width solvers, with the xxhdpi values of the library dimensions
+ */
+@State (Scope.Thread)
+public class ItemsWidthBenchmark {
+    private static final int MIN_ITEM_WIDTH = 240;
+    private static final int MAX_ITEM_WIDTH = 504;
+    private static final int MAX_ACTIVE_ITEM_WIDTH = 504;
+    private static final int MAX_INACTIVE_ITEM_WIDTH = 288;
+    private static final int MIN_INACTIVE_ITEM_WIDTH = 192;
+
+    @Param ({"720", "1080", "1440"})
+    public int screenWidth;
+
+    @Param ({"3", "4", "5"})
+    public int itemsCount;
+
+    private final int[] sizes = new int[2];
+
+    @Benchmark
+    public int fixed() {
+        return ItemsWidth.computeFixed(screenWidth, itemsCount, MIN_ITEM_WIDTH, MAX_ITEM_WIDTH);
+    }
+
+    @Benchmark
+    public int[] shifting() {
+        ItemsWidth.computeShifting(
+            screenWidth, itemsCount, MAX_ACTIVE_ITEM_WIDTH, MAX_INACTIVE_ITEM_WIDTH, MIN_INACTIVE_ITEM_WIDTH, sizes);
+        return sizes;
+    }
+}
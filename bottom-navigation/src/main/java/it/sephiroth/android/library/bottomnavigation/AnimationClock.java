@@ -0,0 +1,130 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+import android.animation.ValueAnimator;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.view.ViewCompat;
+import android.view.View;
+import android.view.animation.AnimationUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * Time source and frame scheduler used by all the library animations (items selection, hide/show, badges)
+ * and by the scroll velocity estimation.<br />
+ * By default animations use the animation time of the current frame and are stepped on the display frames.
+ * A custom clock can be installed with {@link #set(AnimationClock)} to step them manually, for instance
+ * to replay an interaction frame by frame on a JVM. The clock must only be used from the main thread.<br />
+ * Animation durations are scaled by {@link #getDurationScale()}, like the framework animators.
+ */
+public abstract class AnimationClock {
+    private static final int API_O = 26;
+
+    private static Method durationScaleMethod;
+    private static Field durationScaleField;
+    private static boolean durationScaleResolved;
+
+    /**
+     * Last read duration scale, and the frame time it was read at
+     */
+    private static float durationScale = 1f;
+    private static long durationScaleTime = -1;
+
+    private static final AnimationClock SYSTEM = new AnimationClock() {
+        @Override
+        public long uptimeMillis() {
+            return AnimationUtils.currentAnimationTimeMillis();
+        }
+
+        @Override
+        public void postFrameCallback(@NonNull final View view, @NonNull final Runnable callback) {
+            ViewCompat.postOnAnimation(view, callback);
+        }
+
+        @Override
+        public void removeFrameCallback(@NonNull final View view, @NonNull final Runnable callback) {
+            view.removeCallbacks(callback);
+        }
+    };
+
+    private static AnimationClock current = SYSTEM;
+
+    /**
+     * Returns the clock currently used by the library animations
+     */
+    public static AnimationClock get() {
+        return current;
+    }
+
+    /**
+     * Replaces the clock used by the library animations.
+     * Animations already running keep using the previous clock until they end.
+     *
+     * @param clock the new clock, or null to restore the default one
+     */
+    public static void set(@Nullable final AnimationClock clock) {
+        current = null != clock ? clock : SYSTEM;
+    }
+
+    /**
+     * Scale applied to the animation durations: the system "Animator duration scale", 0 when animations
+     * are disabled. Animations with a scaled duration of 0 jump to their end.<br />
+     * The system value is read by reflection at most once per frame, all the animations started within the same
+     * frame share it.
+     */
+    public float getDurationScale() {
+        final long now = uptimeMillis();
+        if (now != durationScaleTime) {
+            durationScaleTime = now;
+            durationScale = readDurationScale();
+        }
+        return durationScale;
+    }
+
+    private static float readDurationScale() {
+        if (!durationScaleResolved) {
+            durationScaleResolved = true;
+            try {
+                if (Build.VERSION.SDK_INT >= API_O) {
+                    durationScaleMethod = ValueAnimator.class.getMethod("getDurationScale");
+                } else {
+                    durationScaleField = ValueAnimator.class.getDeclaredField("sDurationScale");
+                    durationScaleField.setAccessible(true);
+                }
+            } catch (Exception e) {
+                durationScaleMethod = null;
+                durationScaleField = null;
+            }
+        }
+
+        try {
+            if (null != durationScaleMethod) {
+                return (Float) durationScaleMethod.invoke(null);
+            } else if (null != durationScaleField) {
+                return durationScaleField.getFloat(null);
+            }
+        } catch (Exception e) {
+            // ignore, fallback to the default scale
+        }
+        return 1f;
+    }
+
+    /**
+     * Current animation time, in milliseconds
+     */
+    public abstract long uptimeMillis();
+
+    /**
+     * Runs the callback on the next animation frame
+     *
+     * @param view the animated view, whose handler runs the callback
+     */
+    public abstract void postFrameCallback(@NonNull View view, @NonNull Runnable callback);
+
+    /**
+     * Removes a callback previously posted with {@link #postFrameCallback(View, Runnable)}
+     */
+    public abstract void removeFrameCallback(@NonNull View view, @NonNull Runnable callback);
+}
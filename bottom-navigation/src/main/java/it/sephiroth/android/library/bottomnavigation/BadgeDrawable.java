@@ -6,72 +6,179 @@ import android.graphics.Paint;
 import android.graphics.PixelFormat;
 import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
-import android.os.SystemClock;
+import android.view.animation.Interpolator;
+import android.view.animation.OvershootInterpolator;
 
 /**
- * Created by crugnola on 4/12/16.
+ * Created by crugnola on 4/12/16.<br />
+ * Default badge: fades and scales in when shown and pops when its count changes. The animations are stepped
+ * by the navigation {@link BadgeTicker}, the drawable never invalidates itself while drawing. Durations follow the
+ * system animator duration scale.
  */
 public class BadgeDrawable extends Drawable {
     private static final String TAG = BadgeDrawable.class.getSimpleName();
     public static final float FADE_DURATION = 100f;
+    public static final float POP_DURATION = 200f;
     public static final float ALPHA_MAX = 255f;
+    private static final float POP_SCALE = 0.3f;
+
+    private static final int ANIMATION_NONE = 0;
+    private static final int ANIMATION_SHOW = 1;
+    private static final int ANIMATION_COUNT = 2;
+
+    private static final Interpolator SHOW_INTERPOLATOR = new OvershootInterpolator();
+
     private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
-    private long startTimeMillis;
-    private boolean animating;
     private final int size;
+    private BadgeTicker ticker;
+    private int count;
+    private int alpha = (int) ALPHA_MAX;
+
+    private int animation = ANIMATION_NONE;
+    private long startTimeMillis;
+    private float durationScale = 1f;
+    private float animatedAlpha = 1f;
+    private float animatedScale = 1f;
 
     public BadgeDrawable(final int color, final int size) {
         super();
         this.paint.setColor(color);
         this.size = size;
-
-        this.animating = true;
-        this.startTimeMillis = 0;
     }
 
+    /**
+     * Enables or disables the show animation
+     */
     public void setIsAnimating(boolean animating) {
-        this.animating = animating;
+        if (animating) {
+            startAnimation(ANIMATION_SHOW);
+        } else if (animation != ANIMATION_NONE) {
+            onAnimationFrame(Long.MAX_VALUE);
+            if (null != ticker) {
+                ticker.stop(this);
+            }
+        }
     }
 
-    @Override
-    public void draw(final Canvas canvas) {
-        if (!animating) {
-            paint.setAlpha((int) ALPHA_MAX);
-            drawInternal(canvas);
+    public void setColor(final int color) {
+        paint.setColor(color);
+        invalidateSelf();
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Updates the badge count, with a pop animation if it changed
+     */
+    public void setCount(final int count) {
+        if (this.count != count) {
+            this.count = count;
+            onCountChanged(count);
+            startAnimation(ANIMATION_COUNT);
+        }
+    }
+
+    /**
+     * Called when the count changed, before the drawable is invalidated
+     */
+    @SuppressWarnings ("unused")
+    protected void onCountChanged(final int count) { }
+
+    /**
+     * Attaches the drawable to the navigation ticker and starts the show animation
+     */
+    void attach(final BadgeTicker ticker, final int count) {
+        this.ticker = ticker;
+        if (this.count != count) {
+            this.count = count;
+            onCountChanged(count);
+        }
+        startAnimation(ANIMATION_SHOW);
+    }
+
+    /**
+     * Stops the running animation and detaches the drawable from the ticker
+     */
+    void detach() {
+        setIsAnimating(false);
+        ticker = null;
+        setCallback(null);
+    }
+
+    private void startAnimation(final int type) {
+        animation = type;
+        startTimeMillis = AnimationClock.get().uptimeMillis();
+        durationScale = AnimationClock.get().getDurationScale();
+        onAnimationFrame(startTimeMillis);
+
+        if (null != ticker && durationScale > 0) {
+            ticker.start(this);
         } else {
-            if (startTimeMillis == 0) {
-                startTimeMillis = SystemClock.uptimeMillis();
-            }
+            onAnimationFrame(Long.MAX_VALUE);
+        }
+        invalidateSelf();
+    }
 
-            float normalized = (SystemClock.uptimeMillis() - startTimeMillis) / FADE_DURATION;
-            if (normalized >= 1f) {
-                animating = false;
-                paint.setAlpha((int) ALPHA_MAX);
-                drawInternal(canvas);
-            } else {
-                int partialAlpha = (int) (ALPHA_MAX * normalized);
-                setAlpha(partialAlpha);
-                drawInternal(canvas);
-            }
+    /**
+     * Steps the running animation
+     *
+     * @return true if the animation is still running
+     */
+    boolean onAnimationFrame(final long now) {
+        if (animation == ANIMATION_NONE) {
+            return false;
         }
+
+        final float duration = (animation == ANIMATION_SHOW ? FADE_DURATION : POP_DURATION) * durationScale;
+        final float fraction = duration > 0 ? Math.min(1f, (now - startTimeMillis) / duration) : 1f;
+
+        if (fraction >= 1f) {
+            animation = ANIMATION_NONE;
+            animatedAlpha = 1f;
+            animatedScale = 1f;
+            return false;
+        }
+
+        if (animation == ANIMATION_SHOW) {
+            animatedAlpha = fraction;
+            animatedScale = SHOW_INTERPOLATOR.getInterpolation(fraction);
+        } else {
+            animatedAlpha = 1f;
+            animatedScale = 1f + POP_SCALE * (float) Math.sin(Math.PI * fraction);
+        }
+        return true;
+    }
+
+    @Override
+    public void draw(final Canvas canvas) {
+        paint.setAlpha((int) (alpha * animatedAlpha));
+        onDraw(canvas, paint, animatedScale);
     }
 
-    private void drawInternal(final Canvas canvas) {
+    /**
+     * Draws the badge, centered on the top right corner of the bounds
+     *
+     * @param paint paint with the badge color and the current animated alpha
+     * @param scale current animated scale
+     */
+    protected void onDraw(final Canvas canvas, final Paint paint, final float scale) {
         Rect bounds = getBounds();
         final int w = bounds.width();
         final int h = bounds.height();
-        canvas.drawCircle(bounds.centerX() + w / 2, bounds.centerY() - h / 2, w / 2, paint);
+        canvas.drawCircle(bounds.centerX() + w / 2, bounds.centerY() - h / 2, w / 2 * scale, paint);
     }
 
     @Override
     public void setAlpha(final int alpha) {
-        paint.setAlpha(alpha);
+        this.alpha = alpha;
         invalidateSelf();
     }
 
     @Override
     public int getAlpha() {
-        return paint.getAlpha();
+        return alpha;
     }
 
     @Override
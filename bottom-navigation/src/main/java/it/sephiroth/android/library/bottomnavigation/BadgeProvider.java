@@ -1,10 +1,22 @@
 package it.sephiroth.android.library.bottomnavigation;
 
+import android.content.res.Resources;
+import android.graphics.Typeface;
 import android.graphics.drawable.Drawable;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.support.annotation.IdRes;
+import android.support.annotation.NonNull;
+import android.support.v4.content.ContextCompat;
+import android.support.v4.util.Pools;
+import android.util.SparseArray;
 
+import java.io.Serializable;
 import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import it.sephiroth.android.library.bottonnavigation.R;
 import proguard.annotation.Keep;
@@ -12,34 +24,136 @@ import proguard.annotation.KeepClassMembers;
 
 /**
  * Created by alessandro crugnola on 4/12/16.
- * BadgeProvider
+ * BadgeProvider<br />
+ * Badge changes are applied to the item views once per frame: any number of changes made within the
+ * same frame results in a single update of the changed items. Use {@link #edit()} to apply several
+ * changes at once.<br />
+ * {@link #show(int, int)}, {@link #remove(int)}, {@link #hasBadge(int)} and {@link #getCount(int)} can be
+ * called from any thread: changes are collected in a pending {@link BadgeStore} guarded by a lock, where the last
+ * write for an item wins, and only the final state of every item is applied on the main thread. Ids and counts
+ * are kept as primitives, nothing is boxed.
  */
 @Keep
 @KeepClassMembers
 public class BadgeProvider {
+    /**
+     * Pending value of a removed badge
+     */
+    private static final int REMOVED = -1;
+    private static final int MAX_POOL_SIZE = 5;
+    private static final String KEY_STATE = "state";
+    private static final String KEY_MAP = "map";
+
     private final BottomNavigation navigation;
-    private final HashSet<Integer> map = new HashSet<>();
+    private final Object lock = new Object();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final BadgeStore changed = new BadgeStore();
+    private final SparseArray<Drawable> drawables = new SparseArray<>();
+    private final Pools.SimplePool<CountBadgeDrawable> pool = new Pools.SimplePool<>(MAX_POOL_SIZE);
+    private final BadgeTicker ticker;
     private final int badgeSize;
+    private final int badgeCountSize;
+    private final int badgeTextColor;
+    private final float badgeTextSize;
+    private int maxCount;
+
+    /**
+     * Changes not yet applied: item id and count, or {@link #REMOVED}. Guarded by {@link #lock}.
+     */
+    private final BadgeStore pending = new BadgeStore();
+
+    /**
+     * Applied badges. Only modified by {@link #flush()}, guarded by {@link #lock} for the readers on other threads.
+     */
+    private final BadgeStore map = new BadgeStore();
+
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    private final Runnable scheduleRunnable = new Runnable() {
+        @Override
+        public void run() {
+            AnimationClock.get().postFrameCallback(navigation, flushRunnable);
+        }
+    };
 
     public BadgeProvider(final BottomNavigation navigation) {
         this.navigation = navigation;
-        this.badgeSize = navigation.getContext().getResources().getDimensionPixelSize(R.dimen.bbn_badge_size);
+        this.ticker = new BadgeTicker(navigation);
+        final Resources res = navigation.getContext().getResources();
+        this.badgeSize = res.getDimensionPixelSize(R.dimen.bbn_badge_size);
+        this.badgeCountSize = res.getDimensionPixelSize(R.dimen.bbn_badge_count_size);
+        this.badgeTextSize = res.getDimension(R.dimen.bbn_badge_count_text_size);
+        this.badgeTextColor = ContextCompat.getColor(navigation.getContext(), R.color.bbn_badge_text_color);
+        this.maxCount = res.getInteger(R.integer.bbn_badge_max_count);
     }
 
+    /**
+     * Returns the badges state, saved by the navigation with its instance state
+     */
+    protected SavedState saveState() {
+        flush();
+        return new SavedState(map);
+    }
+
+    public void restore(@NonNull final SavedState state) {
+        final BadgeStore store = BadgeStore.fromArray(state.badges);
+        for (int i = 0; i < store.size(); i++) {
+            onBadgeChanged(store.keyAt(i), store.countAt(i));
+        }
+    }
+
+    /**
+     * Returns the badges state in a Bundle. Not used by the navigation: overriding this method no longer has any
+     * effect on the saved instance state.
+     *
+     * @deprecated the navigation saves the badges with {@link #saveState()}
+     */
+    @Deprecated
     protected Bundle save() {
-        Bundle bundle = new Bundle();
-        bundle.putSerializable("map", map);
+        final Bundle bundle = new Bundle();
+        bundle.putParcelable(KEY_STATE, saveState());
         return bundle;
     }
 
+    /**
+     * Restores the badges from a Bundle returned by {@link #save()}, or saved by the previous versions of the
+     * provider (a <code>HashSet&lt;Integer&gt;</code> of the item ids with a badge). Not used by the navigation:
+     * overriding this method no longer has any effect on the restored instance state.
+     *
+     * @deprecated the navigation restores the badges with {@link #restore(SavedState)}
+     */
+    @Deprecated
     @SuppressWarnings ("unchecked")
     public void restore(final Bundle bundle) {
-        HashSet<Integer> set = (HashSet<Integer>) bundle.getSerializable("map");
-        if (null != set) {
-            map.addAll(set);
+        bundle.setClassLoader(SavedState.class.getClassLoader());
+        final SavedState state = bundle.getParcelable(KEY_STATE);
+        if (null != state) {
+            restore(state);
+            return;
+        }
+
+        // bundles saved by previous versions: badges without a count
+        final Serializable ids = bundle.getSerializable(KEY_MAP);
+        if (ids instanceof HashSet) {
+            for (Integer id : (HashSet<Integer>) ids) {
+                show(id);
+            }
         }
     }
 
+    /**
+     * Starts a set of badge changes, applied together by {@link Editor#apply()}
+     */
+    public Editor edit() {
+        return new Editor();
+    }
+
     /**
      * Returns if the menu item will require a badge
      *
@@ -47,19 +161,127 @@ public class BadgeProvider {
      * @return true if the menu item has to draw a badge
      */
     public boolean hasBadge(@IdRes final int itemId) {
-        return map.contains(itemId);
+        synchronized (lock) {
+            if (pending.contains(itemId)) {
+                return pending.getCount(itemId) != REMOVED;
+            }
+            return map.contains(itemId);
+        }
+    }
+
+    /**
+     * Returns the greatest count displayed by the default badges, greater counts are displayed as "99+"
+     */
+    public int getMaxCount() {
+        return maxCount;
+    }
+
+    /**
+     * Sets the greatest count displayed by the default badges, at least 1. Main thread only.
+     */
+    public void setMaxCount(final int maxCount) {
+        CountBadgeDrawable.checkMaxCount(maxCount);
+        this.maxCount = maxCount;
+        for (int i = 0; i < drawables.size(); i++) {
+            if (drawables.valueAt(i) instanceof CountBadgeDrawable) {
+                ((CountBadgeDrawable) drawables.valueAt(i)).setMaxCount(maxCount);
+            }
+        }
     }
 
+    /**
+     * Returns the count of the menu item badge
+     *
+     * @param itemId the menu item id
+     * @return the badge count, 0 if the badge has no count or the item has no badge
+     */
+    public int getCount(@IdRes final int itemId) {
+        synchronized (lock) {
+            if (pending.contains(itemId)) {
+                final int value = pending.getCount(itemId);
+                return value == REMOVED ? BadgeStore.NO_COUNT : value;
+            }
+            return map.getCount(itemId);
+        }
+    }
+
+    /**
+     * Returns the badge drawable of the menu item. Drawables are kept per item and their count is updated in
+     * place, a new drawable is created only when the item badge is shown or the drawable can't be updated.
+     * Main thread only.
+     */
     Drawable getBadge(@IdRes final int itemId) {
-        if (map.contains(itemId)) {
-            return newDrawable(itemId, navigation.menu.getBadgeColor());
+        if (!hasBadge(itemId)) {
+            return null;
+        }
+
+        final int count = getCount(itemId);
+        Drawable drawable = drawables.get(itemId);
+        if (null != drawable && !updateDrawable(itemId, drawable, count)) {
+            release(itemId);
+            drawable = null;
+        }
+
+        if (null == drawable) {
+            drawable = newDrawable(itemId, navigation.menu.getBadgeColor());
+            drawables.put(itemId, drawable);
+            if (drawable instanceof BadgeDrawable) {
+                ((BadgeDrawable) drawable).attach(ticker, count);
+            }
         }
-        return null;
+        return drawable;
     }
 
+    /**
+     * Creates the badge drawable of a menu item. Use {@link #getCount(int)} to retrieve the item badge count.
+     */
     @SuppressWarnings ("unused")
     protected Drawable newDrawable(@IdRes final int itemId, final int preferredColor) {
-        return new BadgeDrawable(preferredColor, badgeSize);
+        final Typeface typeface = null != navigation.typeface ? navigation.typeface.get() : null;
+        final CountBadgeDrawable drawable = pool.acquire();
+        if (null != drawable) {
+            drawable.setColor(preferredColor);
+            drawable.setTypeface(typeface);
+            drawable.setMaxCount(maxCount);
+            return drawable;
+        }
+        return new CountBadgeDrawable(preferredColor, badgeSize, badgeCountSize, badgeTextColor, badgeTextSize, typeface,
+            maxCount
+        );
+    }
+
+    /**
+     * Updates the current badge drawable of a menu item with the new count. {@link BadgeDrawable} instances
+     * are updated in place.
+     *
+     * @return false if the drawable can't be updated and a new one must be created with
+     * {@link #newDrawable(int, int)}
+     */
+    @SuppressWarnings ("unused")
+    protected boolean updateDrawable(@IdRes final int itemId, @NonNull final Drawable drawable, final int count) {
+        if (drawable instanceof BadgeDrawable) {
+            ((BadgeDrawable) drawable).setCount(count);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Drops the badge drawable of a menu item, default drawables go back to the pool
+     */
+    private void release(@IdRes final int itemId) {
+        final Drawable drawable = drawables.get(itemId);
+        if (null == drawable) {
+            return;
+        }
+
+        drawables.remove(itemId);
+        if (drawable instanceof BadgeDrawable) {
+            ((BadgeDrawable) drawable).detach();
+            if (drawable.getClass() == CountBadgeDrawable.class) {
+                pool.release((CountBadgeDrawable) drawable);
+            }
+        }
     }
 
     /**
@@ -68,8 +290,21 @@ public class BadgeProvider {
      * @param itemId the menu item id
      */
     public void show(@IdRes final int itemId) {
-        map.add(itemId);
-        navigation.invalidateBadge(itemId);
+        show(itemId, BadgeStore.NO_COUNT);
+    }
+
+    /**
+     * Request to display a badge with a count over the passed menu item id, or to update the count of the
+     * current badge
+     *
+     * @param itemId the menu item id
+     * @param count  the badge count, 0 for a badge without count. Negative values are handled as 0
+     */
+    public void show(@IdRes final int itemId, final int count) {
+        final int value = Math.max(count, BadgeStore.NO_COUNT);
+        if (!isMainThread() || !hasBadge(itemId) || getCount(itemId) != value) {
+            onBadgeChanged(itemId, value);
+        }
     }
 
     /**
@@ -78,8 +313,140 @@ public class BadgeProvider {
      * @param itemId the menu item id
      */
     public void remove(@IdRes final int itemId) {
-        if (map.remove(itemId)) {
+        if (!isMainThread() || hasBadge(itemId)) {
+            onBadgeChanged(itemId, REMOVED);
+        }
+    }
+
+    /**
+     * Changes made on the main thread can be checked against the current state, as they can't run concurrently
+     * with {@link #flush()}. Changes from other threads are always written, no-ops are dropped by the flush.
+     */
+    private static boolean isMainThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+
+    private void onBadgeChanged(final int itemId, final int value) {
+        synchronized (lock) {
+            pending.put(itemId, value);
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            if (isMainThread()) {
+                scheduleRunnable.run();
+            } else {
+                handler.post(scheduleRunnable);
+            }
+        }
+    }
+
+    /**
+     * Applies the pending changes and updates the item views of the badges changed since the last frame.
+     * Main thread only.
+     */
+    void flush() {
+        flushScheduled.set(false);
+
+        synchronized (lock) {
+            if (pending.size() == 0) {
+                return;
+            }
+
+            // applied together with the pending values drop, readers never see the old state
+            for (int i = 0; i < pending.size(); i++) {
+                final int itemId = pending.keyAt(i);
+                final int value = pending.countAt(i);
+                if (value == REMOVED ? map.remove(itemId) : map.put(itemId, value)) {
+                    changed.add(itemId);
+                }
+            }
+            pending.clear();
+        }
+
+        for (int i = 0; i < changed.size(); i++) {
+            final int itemId = changed.keyAt(i);
             navigation.invalidateBadge(itemId);
+            if (!map.contains(itemId)) {
+                release(itemId);
+            }
+        }
+        changed.clear();
+    }
+
+    /**
+     * Set of badge changes. Changes are recorded in order and applied to the provider by {@link #apply()}:
+     * for every item only its final state counts. An editor must be used by one thread at a time.
+     */
+    public final class Editor {
+        private final BadgeStore shown = new BadgeStore();
+        private final BadgeStore removed = new BadgeStore();
+
+        Editor() { }
+
+        public Editor show(@IdRes final int itemId) {
+            return show(itemId, BadgeStore.NO_COUNT);
+        }
+
+        public Editor show(@IdRes final int itemId, final int count) {
+            removed.remove(itemId);
+            shown.put(itemId, count);
+            return this;
+        }
+
+        public Editor remove(@IdRes final int itemId) {
+            shown.remove(itemId);
+            removed.add(itemId);
+            return this;
+        }
+
+        /**
+         * Applies the recorded changes. The item views are updated with the next frame.
+         */
+        public void apply() {
+            for (int i = 0; i < removed.size(); i++) {
+                BadgeProvider.this.remove(removed.keyAt(i));
+            }
+            for (int i = 0; i < shown.size(); i++) {
+                BadgeProvider.this.show(shown.keyAt(i), shown.countAt(i));
+            }
+            removed.clear();
+            shown.clear();
+        }
+    }
+
+    /**
+     * Badges state: item ids and counts, flattened by {@link BadgeStore#toArray()} into plain int pairs
+     */
+    public static final class SavedState implements Parcelable {
+        final int[] badges;
+
+        SavedState(final BadgeStore store) {
+            badges = store.toArray();
         }
+
+        SavedState(final Parcel in) {
+            badges = in.createIntArray();
+        }
+
+        @Override
+        public void writeToParcel(final Parcel out, final int flags) {
+            out.writeIntArray(badges);
+        }
+
+        @Override
+        public int describeContents() {
+            return 0;
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(final Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(final int size) {
+                return new SavedState[size];
+            }
+        };
     }
 }
@@ -0,0 +1,127 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+import java.util.Arrays;
+
+/**
+ * Badges of the menu items, used by {@link BadgeProvider}: the item ids with a badge and their optional count.<br />
+ * Ids are kept in a sorted primitive array with the counts in a parallel array: a menu has at most a handful of
+ * items, so lookups are a binary search and no boxing is involved. The class doesn't depend on the Android framework.
+ */
+final class BadgeStore {
+    private static final int INITIAL_CAPACITY = 5;
+
+    /**
+     * Count of the badges without a number
+     */
+    static final int NO_COUNT = 0;
+
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int size;
+
+    boolean contains(final int id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    /**
+     * Returns the count of the passed item badge, {@link #NO_COUNT} if the badge has no count or is not present
+     */
+    int getCount(final int id) {
+        final int index = Arrays.binarySearch(ids, 0, size, id);
+        return index >= 0 ? counts[index] : NO_COUNT;
+    }
+
+    /**
+     * Adds a badge without a count, or removes the count of an existing one
+     *
+     * @return true if the badge was not already present, or it had a count
+     */
+    boolean add(final int id) {
+        return put(id, NO_COUNT);
+    }
+
+    /**
+     * Adds a badge or updates its count
+     *
+     * @return true if the badge was not already present, or its count changed
+     */
+    boolean put(final int id, final int count) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            if (counts[index] == count) {
+                return false;
+            }
+            counts[index] = count;
+            return true;
+        }
+
+        index = -index - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+        }
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        System.arraycopy(counts, index, counts, index + 1, size - index);
+        ids[index] = id;
+        counts[index] = count;
+        size++;
+        return true;
+    }
+
+    /**
+     * @return true if the id was present
+     */
+    boolean remove(final int id) {
+        final int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0) {
+            return false;
+        }
+
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        System.arraycopy(counts, index + 1, counts, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Item id at the passed index, ids are in ascending order
+     */
+    int keyAt(final int index) {
+        return ids[index];
+    }
+
+    int countAt(final int index) {
+        return counts[index];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Flattens the badges into id and count pairs, ids in ascending order
+     */
+    int[] toArray() {
+        final int[] result = new int[size * 2];
+        for (int i = 0; i < size; i++) {
+            result[i * 2] = ids[i];
+            result[i * 2 + 1] = counts[i];
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new store with the badges flattened by {@link #toArray()}
+     */
+    static BadgeStore fromArray(final int[] pairs) {
+        final BadgeStore store = new BadgeStore();
+        for (int i = 0; i + 1 < pairs.length; i += 2) {
+            store.put(pairs[i], pairs[i + 1]);
+        }
+        return store;
+    }
+}
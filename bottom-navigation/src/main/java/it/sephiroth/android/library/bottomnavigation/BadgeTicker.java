@@ -0,0 +1,57 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+import android.view.View;
+
+import java.util.ArrayList;
+
+/**
+ * Drives the animations of all the badges of a {@link BottomNavigation} from a single frame callback.
+ * Each frame every running badge is stepped and invalidated once, and no further frame is requested
+ * once all the animations are completed.
+ */
+final class BadgeTicker implements Runnable {
+    private final View view;
+    private final ArrayList<BadgeDrawable> running = new ArrayList<>();
+    private boolean scheduled;
+
+    BadgeTicker(final View view) {
+        this.view = view;
+    }
+
+    void start(final BadgeDrawable drawable) {
+        if (!running.contains(drawable)) {
+            running.add(drawable);
+        }
+        if (!scheduled) {
+            scheduled = true;
+            AnimationClock.get().postFrameCallback(view, this);
+        }
+    }
+
+    void stop(final BadgeDrawable drawable) {
+        running.remove(drawable);
+    }
+
+    boolean isRunning() {
+        return !running.isEmpty();
+    }
+
+    @Override
+    public void run() {
+        scheduled = false;
+        final long now = AnimationClock.get().uptimeMillis();
+
+        for (int i = running.size() - 1; i >= 0; i--) {
+            final BadgeDrawable drawable = running.get(i);
+            if (!drawable.onAnimationFrame(now)) {
+                running.remove(i);
+            }
+            drawable.invalidateSelf();
+        }
+
+        if (!running.isEmpty()) {
+            scheduled = true;
+            AnimationClock.get().postFrameCallback(view, this);
+        }
+    }
+}
@@ -2,18 +2,18 @@ package it.sephiroth.android.library.bottomnavigation;
 
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.hardware.SensorManager;
 import android.os.Build;
 import android.support.annotation.NonNull;
 import android.support.design.widget.CoordinatorLayout;
 import android.support.design.widget.Snackbar.SnackbarLayout;
 import android.support.v4.view.ViewCompat;
-import android.support.v4.view.ViewPropertyAnimatorCompat;
-import android.support.v4.view.animation.LinearOutSlowInInterpolator;
 import android.util.AttributeSet;
 import android.view.View;
 import android.view.ViewConfiguration;
 import android.view.ViewGroup.MarginLayoutParams;
-import android.view.animation.Interpolator;
+
+import java.util.ArrayList;
 
 import it.sephiroth.android.library.bottonnavigation.R;
 import proguard.annotation.Keep;
@@ -39,11 +39,6 @@ public class BottomBehavior extends VerticalScrollingBehavior<BottomNavigation>
     private boolean scrollEnabled;
     private boolean enabled;
 
-    /**
-     * default hide/show interpolator
-     */
-    private static final Interpolator INTERPOLATOR = new LinearOutSlowInInterpolator();
-
     /**
      * show/hide animation duration
      */
@@ -74,10 +69,29 @@ public class BottomBehavior extends VerticalScrollingBehavior<BottomNavigation>
      */
     private final int scaledTouchSlop;
 
+    /**
+     * Minimum fling velocity (px/s) to hide/show the view
+     */
+    private final int minFlingVelocity;
+
+    /**
+     * Fling deceleration (px/s^2), same model as {@link android.widget.Scroller}
+     */
+    private final float flingDeceleration;
+
+    private static final float INCHES_PER_METER = 39.37f;
+    private static final float DENSITY_DPI = 160f;
+
+    /**
+     * true if the touch part of the current nested scroll already changed the visibility,
+     * the following fling won't change it again
+     */
+    private boolean directionHandled;
+
     /**
      * hide/show animator
      */
-    private ViewPropertyAnimatorCompat animator;
+    private OffsetAnimator animator;
 
     /**
      * current visibility status
@@ -89,10 +103,33 @@ public class BottomBehavior extends VerticalScrollingBehavior<BottomNavigation>
      */
     private int offset;
 
+    /**
+     * quick return mode: the translation follows the nested scroll and settles to the
+     * nearest state when the scroll ends
+     */
+    private boolean quickReturn;
+
+    /**
+     * true if the current nested scroll moved the view and it needs to settle when the scroll ends
+     */
+    private boolean settlePending;
+
     private OnExpandStatusChangeListener listener;
 
+    private final OffsetAnimator.OnOffsetChangedListener offsetListener = new OffsetAnimator.OnOffsetChangedListener() {
+        @Override
+        public void onOffsetChanged(final View view) {
+            dispatchOffsetChanged((BottomNavigation) view);
+        }
+    };
+
     protected SnackBarDependentView snackbarDependentView;
 
+    /**
+     * Views following the navigation offset, see {@link #addDependentView(View)}
+     */
+    private final ArrayList<GenericDependentView> dependentViews = new ArrayList<>();
+
     public BottomBehavior() {
         this(null, null);
     }
@@ -107,11 +144,17 @@ public class BottomBehavior extends VerticalScrollingBehavior<BottomNavigation>
             R.styleable.BottomNavigationBehavior_bbn_animationDuration,
             context.getResources().getInteger(R.integer.bbn_hide_animation_duration)
         );
+        this.quickReturn = array.getBoolean(R.styleable.BottomNavigationBehavior_bbn_quickReturn, false);
         this.scaledTouchSlop = ViewConfiguration.get(context).getScaledTouchSlop() * 2;
+        this.minFlingVelocity = ViewConfiguration.get(context).getScaledMinimumFlingVelocity();
+        this.flingDeceleration = SensorManager.GRAVITY_EARTH * INCHES_PER_METER
+            * context.getResources().getDisplayMetrics().density * DENSITY_DPI * ViewConfiguration.getScrollFriction();
         this.offset = 0;
         array.recycle();
 
-        log(TAG, DEBUG, "scrollable: %b, duration: %d, touchSlop: %d", scrollable, animationDuration, scaledTouchSlop);
+        if (BottomNavigation.DEBUG) {
+            log(TAG, DEBUG, "scrollable: %b, duration: %d, touchSlop: %d", scrollable, animationDuration, scaledTouchSlop);
+        }
     }
 
     public void setOnExpandStatusChangeListener(final OnExpandStatusChangeListener listener) {
@@ -130,6 +173,49 @@ public class BottomBehavior extends VerticalScrollingBehavior<BottomNavigation>
         return !hidden;
     }
 
+    public boolean isQuickReturn() {
+        return quickReturn;
+    }
+
+    public void setQuickReturn(final boolean quickReturn) {
+        this.quickReturn = quickReturn;
+    }
+
+    /**
+     * Registers a view which will follow the navigation offset: while the navigation hides, the view is translated down
+     * by the same amount (up to the navigation height). The view translation is updated on every animation frame,
+     * without the CoordinatorLayout dependencies resolution.
+     *
+     * @param view a view laid out above the navigation, for instance a floating action button or a footer
+     */
+    public void addDependentView(@NonNull final View view) {
+        if (null == view) {
+            throw new IllegalArgumentException("view can't be null");
+        }
+        if (indexOfDependentView(view) < 0) {
+            dependentViews.add(new GenericDependentView(view, height, bottomInset));
+        }
+    }
+
+    /**
+     * Removes a view previously registered with {@link #addDependentView(View)}, restoring its original translation
+     */
+    public void removeDependentView(@NonNull final View view) {
+        final int index = indexOfDependentView(view);
+        if (index > -1) {
+            dependentViews.remove(index).onDestroy();
+        }
+    }
+
+    private int indexOfDependentView(final View view) {
+        for (int i = 0; i < dependentViews.size(); i++) {
+            if (dependentViews.get(i).child == view) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     public void setLayoutValues(final int bottomNavHeight, final int bottomInset) {
         log(TAG, INFO, "setLayoutValues(%d, %d)", bottomNavHeight, bottomInset);
         this.height = bottomNavHeight;
@@ -137,10 +223,17 @@ public class BottomBehavior extends VerticalScrollingBehavior<BottomNavigation>
         this.translucentNavigation = bottomInset > 0;
         this.maxOffset = height + (translucentNavigation ? bottomInset : 0);
         this.enabled = true;
-        log(
-            TAG, DEBUG, "height: %d, translucent: %b, maxOffset: %d, bottomInset: %d", height, translucentNavigation, maxOffset,
-            bottomInset
-        );
+
+        for (int i = 0; i < dependentViews.size(); i++) {
+            dependentViews.get(i).height = height;
+        }
+
+        if (BottomNavigation.DEBUG) {
+            log(
+                TAG, DEBUG, "height: %d, translucent: %b, maxOffset: %d, bottomInset: %d", height, translucentNavigation, maxOffset,
+                bottomInset
+            );
+        }
     }
 
     @Override
@@ -161,6 +254,12 @@ public class BottomBehavior extends VerticalScrollingBehavior<BottomNavigation>
     public boolean onLayoutChild(CoordinatorLayout parent, BottomNavigation abl, int layoutDirection) {
         boolean handled = super.onLayoutChild(parent, abl, layoutDirection);
 
+        if (null != snackbarDependentView) {
+            // the snackbar has just been laid out again, its offset must be re-applied
+            snackbarDependentView.onLayout(abl);
+        }
+        dispatchOffsetChanged(abl);
+
         final int pendingAction = abl.getPendingAction();
         if (pendingAction != PENDING_ACTION_NONE) {
             final boolean animate = (pendingAction & PENDING_ACTION_ANIMATE_ENABLED) != 0;
@@ -207,15 +306,18 @@ public class BottomBehavior extends VerticalScrollingBehavior<BottomNavigation>
         final int nestedScrollAxes) {
 
         offset = 0;
+        directionHandled = false;
         if (!scrollable || !scrollEnabled) {
             return false;
         }
 
         if ((nestedScrollAxes & ViewCompat.SCROLL_AXIS_VERTICAL) != 0) {
-            log(
-                TAG, INFO, "isScrollContainer: %b, canScrollUp: %b, canScrollDown: %b", target.isScrollContainer(),
-                target.canScrollVertically(-1), target.canScrollVertically(1)
-            );
+            if (BottomNavigation.DEBUG) {
+                log(
+                    TAG, INFO, "isScrollContainer: %b, canScrollUp: %b, canScrollDown: %b", target.isScrollContainer(),
+                    target.canScrollVertically(-1), target.canScrollVertically(1)
+                );
+            }
             if (target.isScrollContainer() && (!target.canScrollVertically(-1) && !target.canScrollVertically(1))) {
                 return false;
             }
@@ -228,6 +330,19 @@ public class BottomBehavior extends VerticalScrollingBehavior<BottomNavigation>
     public void onStopNestedScroll(final CoordinatorLayout coordinatorLayout, final BottomNavigation child, final View target) {
         super.onStopNestedScroll(coordinatorLayout, child, target);
         offset = 0;
+
+        if (settlePending) {
+            settlePending = false;
+            // settle in the direction of the last movement, or to the nearest state if the finger was at rest
+            final float velocity = getScrollVelocity();
+            final boolean expand =
+                Math.abs(velocity) >= minFlingVelocity ? velocity < 0 : child.getTranslationY() < maxOffset / 2f;
+
+            // the spring continues the movement of the content: the navigation follows the scroll delta 1:1
+            ensureAnimator(child);
+            animator.setVelocity(velocity);
+            setExpanded(coordinatorLayout, child, expand, true);
+        }
     }
 
     @Override
@@ -253,11 +368,16 @@ public class BottomBehavior extends VerticalScrollingBehavior<BottomNavigation>
             );
         }
 
+        if (quickReturn) {
+            followScroll(child, dy);
+            return;
+        }
+
         if (offset > scaledTouchSlop) {
-            handleDirection(coordinatorLayout, child, ScrollDirection.SCROLL_DIRECTION_UP);
+            directionHandled |= handleDirection(coordinatorLayout, child, ScrollDirection.SCROLL_DIRECTION_UP);
             offset = 0;
         } else if (offset < -scaledTouchSlop) {
-            handleDirection(coordinatorLayout, child, ScrollDirection.SCROLL_DIRECTION_DOWN);
+            directionHandled |= handleDirection(coordinatorLayout, child, ScrollDirection.SCROLL_DIRECTION_DOWN);
             offset = 0;
         }
     }
@@ -268,13 +388,52 @@ public class BottomBehavior extends VerticalScrollingBehavior<BottomNavigation>
         @ScrollDirection int scrollDirection) {
         log(TAG, INFO, "onNestedDirectionFling(%g, %d)", velocityY, scrollDirection);
 
-        if (Math.abs(velocityY) > 1000) {
-            handleDirection(coordinatorLayout, child, scrollDirection);
+        if (directionHandled || Math.abs(velocityY) < minFlingVelocity || getFlingDistance(velocityY) < maxOffset) {
+            // already handled by the touch scroll, or the content won't move enough to change the visibility
+            return true;
         }
 
+        if (quickReturn && settlePending) {
+            // the view could be anywhere between the two states, settle in the fling direction
+            settlePending = false;
+            setExpanded(coordinatorLayout, child, scrollDirection == ScrollDirection.SCROLL_DIRECTION_DOWN, true);
+        } else {
+            handleDirection(coordinatorLayout, child, scrollDirection);
+        }
         return true;
     }
 
+    /**
+     * Predicted distance (px) the content will travel for the passed fling velocity
+     */
+    private float getFlingDistance(final float velocity) {
+        return velocity * velocity / (2 * flingDeceleration);
+    }
+
+    /**
+     * Quick return mode, moves the view by the scroll delta
+     */
+    private void followScroll(final BottomNavigation child, final int dy) {
+        if (!enabled || !scrollable || !scrollEnabled) {
+            return;
+        }
+
+        if (!settlePending) {
+            // first move of this nested scroll, stop any running hide/show animation
+            if (null != animator) {
+                animator.cancel();
+            }
+            settlePending = true;
+        }
+
+        final float current = child.getTranslationY();
+        final float translation = Math.max(0, Math.min(maxOffset, current + dy));
+        if (translation != current) {
+            child.setTranslationY(translation);
+            dispatchOffsetChanged(child);
+        }
+    }
+
     @Override
     public void onNestedScroll(
         final CoordinatorLayout coordinatorLayout, final BottomNavigation child, final View target, final int dxConsumed,
@@ -296,15 +455,21 @@ public class BottomBehavior extends VerticalScrollingBehavior<BottomNavigation>
         int totalOverScroll) {
     }
 
-    private void handleDirection(final CoordinatorLayout coordinatorLayout, BottomNavigation child, int scrollDirection) {
+    /**
+     * @return true if the visibility has been changed
+     */
+    private boolean handleDirection(final CoordinatorLayout coordinatorLayout, BottomNavigation child, int scrollDirection) {
         if (!enabled || !scrollable || !scrollEnabled) {
-            return;
+            return false;
         }
         if (scrollDirection == ScrollDirection.SCROLL_DIRECTION_DOWN && hidden) {
             setExpanded(coordinatorLayout, child, true, true);
+            return true;
         } else if (scrollDirection == ScrollDirection.SCROLL_DIRECTION_UP && !hidden) {
             setExpanded(coordinatorLayout, child, false, true);
+            return true;
         }
+        return false;
     }
 
     protected void setExpanded(
@@ -323,30 +488,43 @@ public class BottomBehavior extends VerticalScrollingBehavior<BottomNavigation>
         final boolean animate) {
 
         log(TAG, INFO, "animateOffset(%d)", offset);
+        MiscUtils.beginSection(MiscUtils.TRACE_OFFSET);
         hidden = offset != 0;
-        ensureOrCancelAnimator(coordinatorLayout, child);
+        ensureAnimator(child);
 
         if (animate) {
-            animator.translationY(offset).start();
+            // a running animation is retargeted, keeping its current velocity
+            animator.animateTo(offset);
         } else {
+            animator.cancel();
             child.setTranslationY(offset);
+            dispatchOffsetChanged(child);
         }
+        MiscUtils.endSection();
     }
 
-    private void ensureOrCancelAnimator(final CoordinatorLayout coordinatorLayout, final BottomNavigation child) {
+    private void ensureAnimator(final BottomNavigation child) {
         if (animator == null) {
-            animator = ViewCompat.animate(child);
-            animator.setDuration(animationDuration);
-            animator.setInterpolator(INTERPOLATOR);
-        } else {
-            animator.cancel();
+            animator = new OffsetAnimator(child, animationDuration);
+            animator.setOnOffsetChangedListener(offsetListener);
+        }
+    }
+
+    /**
+     * The navigation translation has changed, updates the dependent views
+     */
+    private void dispatchOffsetChanged(final BottomNavigation child) {
+        if (null != snackbarDependentView) {
+            snackbarDependentView.applyOffset(child);
+        }
+
+        for (int i = 0; i < dependentViews.size(); i++) {
+            dependentViews.get(i).applyOffset(child);
         }
     }
 
     public abstract static class DependentView<V extends View> {
         protected final V child;
-        protected final MarginLayoutParams layoutParams;
-        protected final int bottomMargin;
         protected int height;
         protected final int bottomInset;
         protected final float originalPosition;
@@ -354,19 +532,24 @@ public class BottomBehavior extends VerticalScrollingBehavior<BottomNavigation>
         DependentView(V child, final int height, final int bottomInset) {
             this.child = child;
             this.originalPosition = child.getTranslationY();
-            this.layoutParams = (MarginLayoutParams) child.getLayoutParams();
-            this.bottomMargin = layoutParams.bottomMargin;
             this.height = height;
             this.bottomInset = bottomInset;
         }
 
         protected void onDestroy() {
-            layoutParams.bottomMargin = bottomMargin;
             child.setTranslationY(originalPosition);
-            child.requestLayout();
         }
 
         abstract boolean onDependentViewChanged(CoordinatorLayout parent, BottomNavigation navigation);
+
+        /**
+         * The navigation translation has changed
+         *
+         * @return true if the view position changed
+         */
+        boolean applyOffset(final BottomNavigation navigation) {
+            return false;
+        }
     }
 
     public static class GenericDependentView extends DependentView<View> {
@@ -378,13 +561,38 @@ public class BottomBehavior extends VerticalScrollingBehavior<BottomNavigation>
 
         @Override
         protected boolean onDependentViewChanged(final CoordinatorLayout parent, final BottomNavigation navigation) {
-            return true;
+            return applyOffset(navigation);
+        }
+
+        @Override
+        boolean applyOffset(final BottomNavigation navigation) {
+            final float translation = originalPosition + Math.min(height, Math.max(0, navigation.getTranslationY()));
+            if (child.getTranslationY() != translation) {
+                child.setTranslationY(translation);
+                return true;
+            }
+            return false;
         }
     }
 
+    /**
+     * Keeps the snackbar above the navigation. The bottom margin is changed only once, when the snackbar appears,
+     * then the snackbar follows the navigation translation by offsetting its position, without layout passes.
+     */
     private static class SnackBarDependentView extends DependentView<SnackbarLayout> {
         private static final String TAG = BottomBehavior.TAG + "." + SnackBarDependentView.class.getSimpleName();
-        private int snackbarHeight = -1;
+        private boolean attached;
+
+        /**
+         * snackbar layout params and their original bottom margin, read when the snackbar is attached
+         */
+        private MarginLayoutParams layoutParams;
+        private int bottomMargin;
+
+        /**
+         * offset currently applied to the snackbar position
+         */
+        private int appliedOffset;
 
         SnackBarDependentView(final SnackbarLayout child, final int height, final int bottomInset) {
             super(child, height, bottomInset);
@@ -403,16 +611,43 @@ public class BottomBehavior extends VerticalScrollingBehavior<BottomNavigation>
                 }
             }
 
-            if (snackbarHeight == -1) {
-                snackbarHeight = child.getHeight();
+            if (!attached && child.getLayoutParams() instanceof MarginLayoutParams) {
+                attached = true;
+                layoutParams = (MarginLayoutParams) child.getLayoutParams();
+                bottomMargin = layoutParams.bottomMargin;
+                if (layoutParams.bottomMargin != height) {
+                    // the offset will be applied after the layout pass, see onLayout
+                    layoutParams.bottomMargin = height;
+                    child.requestLayout();
+                    return true;
+                }
             }
+            return applyOffset(navigation);
+        }
 
-            final float maxScroll = Math.max(0, navigation.getTranslationY() - bottomInset);
-            final int newBottomMargin = (int) (height - maxScroll);
+        /**
+         * The snackbar has been laid out, at its position without any offset
+         */
+        void onLayout(final BottomNavigation navigation) {
+            appliedOffset = 0;
+            applyOffset(navigation);
+        }
 
-            if (layoutParams.bottomMargin != newBottomMargin) {
-                layoutParams.bottomMargin = newBottomMargin;
-                child.requestLayout();
+        /**
+         * Moves the snackbar down by the hidden part of the navigation
+         */
+        @Override
+        boolean applyOffset(final BottomNavigation navigation) {
+            if (!attached) {
+                return false;
+            }
+
+            final int offset = (int) Math.min(height, Math.max(0, navigation.getTranslationY() - bottomInset));
+            if (offset != appliedOffset) {
+                // offsets compose with the snackbar's own show/hide animation, which uses translationY (or
+                // offsetTopAndBottom on api < 20)
+                ViewCompat.offsetTopAndBottom(child, offset - appliedOffset);
+                appliedOffset = offset;
                 return true;
             }
             return false;
@@ -420,8 +655,15 @@ public class BottomBehavior extends VerticalScrollingBehavior<BottomNavigation>
 
         @Override
         protected void onDestroy() {
+            if (appliedOffset != 0) {
+                ViewCompat.offsetTopAndBottom(child, -appliedOffset);
+                appliedOffset = 0;
+            }
+            if (null != layoutParams) {
+                layoutParams.bottomMargin = bottomMargin;
+                child.requestLayout();
+            }
             super.onDestroy();
-            //scrollEnabled = true;
         }
     }
 
@@ -22,6 +22,7 @@ import android.annotation.TargetApi;
 import android.app.Activity;
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Rect;
 import android.graphics.Typeface;
@@ -29,11 +30,13 @@ import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
 import android.graphics.drawable.LayerDrawable;
 import android.os.Build;
-import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.Parcel;
 import android.os.Parcelable;
 import android.support.annotation.IdRes;
 import android.support.annotation.MenuRes;
+import android.support.annotation.NonNull;
 import android.support.design.widget.CoordinatorLayout;
 import android.support.v4.content.ContextCompat;
 import android.support.v4.view.GravityCompat;
@@ -53,6 +56,7 @@ import java.lang.ref.SoftReference;
 import java.lang.reflect.Constructor;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import it.sephiroth.android.library.bottonnavigation.R;
 
@@ -68,9 +72,20 @@ import static it.sephiroth.android.library.bottomnavigation.MiscUtils.log;
 public class BottomNavigation extends FrameLayout implements OnItemClickListener {
     private static final String TAG = BottomNavigation.class.getSimpleName();
 
+    /**
+     * Enables the library logging. Intentionally mutable, so that it can be set at runtime (e.g. from
+     * BuildConfig.DEBUG): when disabled the log calls don't format or allocate anything.
+     */
     @SuppressWarnings ("checkstyle:staticvariablename")
     public static boolean DEBUG = false;
 
+    /**
+     * Adds the library sections (populate, layout, draw, selection and hide/show animations) to the systrace
+     * captures. Intentionally mutable, to be changed before creating the BottomNavigation views.
+     */
+    @SuppressWarnings ("checkstyle:staticvariablename")
+    public static boolean TRACE = false;
+
     static final int PENDING_ACTION_NONE = 0x0;
     static final int PENDING_ACTION_EXPANDED = 0x1;
     static final int PENDING_ACTION_COLLAPSED = 0x2;
@@ -85,6 +100,11 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
 
     static final Class<?>[] CONSTRUCTOR_PARAMS = new Class<?>[]{BottomNavigation.class};
 
+    /**
+     * Used to deliver the results of the async menu inflation
+     */
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
     /**
      * Current pending action (used inside the BottomBehavior instance)
      */
@@ -136,6 +156,16 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
      */
     private View rippleOverlay;
 
+    /**
+     * Items are drawn by a single {@link FlatLayout} view (fixed and shifting modes only)
+     */
+    private boolean flattenItems;
+
+    /**
+     * Item views draw their icons and labels using the shared {@link RasterCache}
+     */
+    private boolean rasterCache;
+
     /**
      * Toggle the ripple background animation on item press
      */
@@ -175,6 +205,11 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
      */
     private CoordinatorLayout.Behavior mBehavior;
 
+    /**
+     * Hide on scroll controller, when the navigation is not a CoordinatorLayout child
+     */
+    ScrollCoordinator scrollCoordinator;
+
     /**
      * Menu selection listener
      */
@@ -197,6 +232,17 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
 
     private BadgeProvider badgeProvider;
 
+    /**
+     * Incremented on every menu inflation request. Used to discard the results
+     * of an async inflation which has been superseded by a newer request
+     */
+    private int menuInflateToken;
+
+    /**
+     * An async menu inflation is running
+     */
+    private boolean asyncMenuPending;
+
     public BottomNavigation(final Context context) {
         this(context, null);
     }
@@ -231,7 +277,7 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
         }
 
         if (null != badgeProvider) {
-            savedState.badgeBundle = badgeProvider.save();
+            savedState.badgeState = badgeProvider.saveState();
         }
 
         return savedState;
@@ -246,8 +292,8 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
         defaultSelectedIndex = savedState.selectedIndex;
         log(TAG, Log.DEBUG, "defaultSelectedIndex: %d", defaultSelectedIndex);
 
-        if (null != badgeProvider && null != savedState.badgeBundle) {
-            badgeProvider.restore(savedState.badgeBundle);
+        if (null != badgeProvider && null != savedState.badgeState) {
+            badgeProvider.restore(savedState.badgeState);
         }
     }
 
@@ -262,6 +308,8 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
         final int menuResId = array.getResourceId(R.styleable.BottomNavigation_bbn_entries, 0);
         pendingMenu = MenuParser.inflateMenu(context, menuResId);
         badgeProvider = parseBadgeProvider(this, context, array.getString(R.styleable.BottomNavigation_bbn_badgeProvider));
+        flattenItems = array.getBoolean(R.styleable.BottomNavigation_bbn_flattenItems, false);
+        rasterCache = array.getBoolean(R.styleable.BottomNavigation_bbn_rasterCache, false);
         array.recycle();
 
         backgroundColorAnimation = getResources().getInteger(R.integer.bbn_background_animation_duration);
@@ -287,10 +335,23 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
             }
         }
 
+        if (!flattenItems) {
+            initializeOverlays();
+        }
+    }
+
+    /**
+     * Creates the background and ripple overlay views, not needed when the items are drawn by a {@link FlatLayout}
+     */
+    private void initializeOverlays() {
+        if (null != backgroundOverlay) {
+            return;
+        }
+
         LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(MATCH_PARENT, MATCH_PARENT);
         backgroundOverlay = new View(getContext());
         backgroundOverlay.setLayoutParams(params);
-        addView(backgroundOverlay);
+        addView(backgroundOverlay, 0);
 
         final Drawable drawable = ContextCompat.getDrawable(getContext(), R.drawable.bbn_ripple_selector);
         drawable.mutate();
@@ -302,7 +363,7 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
         rippleOverlay.setClickable(false);
         rippleOverlay.setFocusable(false);
         rippleOverlay.setFocusableInTouchMode(false);
-        addView(rippleOverlay);
+        addView(rippleOverlay, 1);
     }
 
     int getPendingAction() {
@@ -326,8 +387,9 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
     @SuppressWarnings ("unused")
     public void setSelectedIndex(final int position, final boolean animate) {
         if (null != itemsContainer) {
-            setSelectedItemInternal(
-                itemsContainer, ((ViewGroup) itemsContainer).getChildAt(position), position, animate, false);
+            final View view = ViewGroup.class.isInstance(itemsContainer)
+                ? ((ViewGroup) itemsContainer).getChildAt(position) : (View) itemsContainer;
+            setSelectedItemInternal(itemsContainer, view, position, animate, false);
         } else {
             defaultSelectedIndex = position;
         }
@@ -344,6 +406,10 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
     @SuppressWarnings ("unused")
     public void setExpanded(boolean expanded, boolean animate) {
         log(TAG, INFO, "setExpanded(%b, %b)", expanded, animate);
+        if (!(mBehavior instanceof BottomBehavior) && null != scrollCoordinator) {
+            scrollCoordinator.setExpanded(expanded, animate);
+            return;
+        }
         mPendingAction = (expanded ? PENDING_ACTION_EXPANDED : PENDING_ACTION_COLLAPSED)
             | (animate ? PENDING_ACTION_ANIMATE_ENABLED : 0);
         requestLayout();
@@ -352,6 +418,8 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
     public boolean isExpanded() {
         if (null != mBehavior && mBehavior instanceof BottomBehavior) {
             return ((BottomBehavior) mBehavior).isExpanded();
+        } else if (null != scrollCoordinator) {
+            return scrollCoordinator.isExpanded();
         }
         return false;
     }
@@ -370,6 +438,8 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
      * @param menuResId the menu resource id
      */
     public void inflateMenu(@MenuRes final int menuResId) {
+        menuInflateToken++;
+        asyncMenuPending = false;
         defaultSelectedIndex = 0;
         if (isAttachedToWindow()) {
             setItems(MenuParser.inflateMenu(getContext(), menuResId));
@@ -379,6 +449,139 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
         }
     }
 
+    /**
+     * Replaces the current menu with the passed one. Differently from {@link #inflateMenu(int)}, the item views
+     * of the items (matched by id) present in both menus are kept and rebound, while the inserted, removed and moved
+     * items are animated. The current selection is preserved if the selected item is present in the new menu.<br />
+     * If the new menu requires a different layout (fixed, shifting) or different colors, the items are recreated.
+     *
+     * @param menuResId the menu resource id
+     */
+    public void setMenu(@MenuRes final int menuResId) {
+        if (null == menu || null == itemsContainer || !isAttachedToWindow()) {
+            inflateMenu(menuResId);
+            return;
+        }
+
+        final MenuParser.Menu newMenu = MenuParser.inflateMenu(getContext(), menuResId);
+        menuInflateToken++;
+        asyncMenuPending = false;
+
+        if (null == newMenu) {
+            return;
+        }
+
+        newMenu.setTabletMode(isTablet(gravity));
+
+        if (!menu.hasSameStyle(newMenu)) {
+            defaultSelectedIndex = 0;
+            setItems(newMenu);
+            return;
+        }
+
+        if (newMenu.getItemsCount() < 3 || newMenu.getItemsCount() > 5) {
+            throw new IllegalArgumentException("BottomNavigation expects 3 to 5 items. " + newMenu.getItemsCount() + " found");
+        }
+
+        final int oldIndex = itemsContainer.getSelectedIndex();
+        final int oldItemId = oldIndex > -1 && oldIndex < menu.getItemsCount() ? menu.getItemAt(oldIndex).getId() : 0;
+        int newIndex = newMenu.indexOfItem(oldItemId);
+        if (newIndex < 0) {
+            newIndex = Math.max(0, findFirstSelectedIndex(newMenu));
+        }
+
+        if (BottomNavigation.DEBUG) {
+            log(TAG, INFO, "setMenu: %s, selectedIndex: %d --> %d", newMenu, oldIndex, newIndex);
+        }
+
+        this.menu = newMenu;
+        enabledRippleBackground = !newMenu.getItemAt(0).hasColor() || newMenu.isTablet();
+        itemsContainer.update(newMenu, newIndex);
+
+        final BottomNavigationItem selected = newMenu.getItemAt(newIndex);
+        backgroundDrawable.setColor(selected.hasColor() && !newMenu.isTablet() ? selected.getColor() : newMenu.getBackground());
+        if (null != rippleOverlay) {
+            MiscUtils.setDrawableColor(rippleOverlay.getBackground(), newMenu.getRippleColor());
+        }
+
+        if (null != listener && selected.getId() != oldItemId) {
+            listener.onMenuItemSelect(selected.getId(), newIndex, false);
+        }
+
+        if (null != menuChangedListener) {
+            menuChangedListener.onMenuChanged(this);
+        }
+    }
+
+    /**
+     * Same as {@link #inflateMenu(int)}, but the menu is parsed and its colors
+     * are resolved using the passed executor. The items (and their icons) are then created in the main thread.<br />
+     * Until the menu is ready the navigation draws only its (correctly sized) background.
+     *
+     * @param menuResId the menu resource id
+     * @param executor  the executor used to parse the menu
+     */
+    public void inflateMenuAsync(@MenuRes final int menuResId, @NonNull final Executor executor) {
+        final int token = ++menuInflateToken;
+        final Context context = getContext();
+        final boolean tablet = isTablet(computeGravity());
+        asyncMenuPending = true;
+        pendingMenu = null;
+
+        if (null != backgroundDrawable) {
+            applyPlaceholder();
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final MenuParser.Menu menu = MenuParser.inflateMenu(context, menuResId);
+                if (null != menu) {
+                    // colors depend on the tablet mode
+                    menu.setTabletMode(tablet);
+                    menu.preload();
+                }
+
+                MAIN_HANDLER.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onMenuInflated(token, menu);
+                    }
+                });
+            }
+        });
+    }
+
+    private void onMenuInflated(final int token, final MenuParser.Menu menu) {
+        if (token != menuInflateToken) {
+            log(TAG, INFO, "discarding stale menu");
+            return;
+        }
+
+        asyncMenuPending = false;
+        defaultSelectedIndex = 0;
+        if (isAttachedToWindow()) {
+            setItems(menu);
+            pendingMenu = null;
+        } else {
+            pendingMenu = menu;
+        }
+    }
+
+    /**
+     * Parses the passed menu resources in a background thread and stores them in the
+     * process-wide menu cache, so that the following BottomNavigation inflations using the same
+     * menus (and the same theme and configuration) won't need to parse the xml again.<br />
+     * Typically called in the Application#onCreate or in the Activity#onCreate, before setContentView.
+     *
+     * @param context    the context used to resolve the menu attributes. It should use the same theme as
+     *                   the Activity which will host the BottomNavigation
+     * @param menuResIds the menu resources to preload
+     */
+    public static void preloadMenus(@NonNull final Context context, @MenuRes final int... menuResIds) {
+        MenuParser.preloadMenus(context, menuResIds);
+    }
+
     /**
      * Returns the current menu items count
      *
@@ -431,6 +634,13 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
         return null;
     }
 
+    @Override
+    protected void dispatchDraw(final Canvas canvas) {
+        MiscUtils.beginSection(MiscUtils.TRACE_DRAW);
+        super.dispatchDraw(canvas);
+        MiscUtils.endSection();
+    }
+
     @Override
     protected void onMeasure(final int widthMeasureSpec, final int heightMeasureSpec) {
         super.onMeasure(widthMeasureSpec, heightMeasureSpec);
@@ -497,15 +707,9 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
         attached = true;
 
         ViewGroup.LayoutParams params = getLayoutParams();
-        final CoordinatorLayout.LayoutParams layoutParams;
-        if (CoordinatorLayout.LayoutParams.class.isInstance(params)) {
-            layoutParams = (CoordinatorLayout.LayoutParams) params;
-            this.gravity = GravityCompat.getAbsoluteGravity(layoutParams.gravity, ViewCompat.getLayoutDirection(this));
-        } else {
-            layoutParams = null;
-            // TODO: check the gravity in other viewparent types
-            this.gravity = Gravity.BOTTOM;
-        }
+        final CoordinatorLayout.LayoutParams layoutParams =
+            CoordinatorLayout.LayoutParams.class.isInstance(params) ? (CoordinatorLayout.LayoutParams) params : null;
+        this.gravity = computeGravity();
 
         initializeUI(gravity);
 
@@ -533,6 +737,20 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
         }
     }
 
+    /**
+     * Absolute gravity of the navigation in its parent
+     */
+    private int computeGravity() {
+        final ViewGroup.LayoutParams params = getLayoutParams();
+        if (CoordinatorLayout.LayoutParams.class.isInstance(params)) {
+            return GravityCompat.getAbsoluteGravity(((CoordinatorLayout.LayoutParams) params).gravity,
+                ViewCompat.getLayoutDirection(this)
+            );
+        }
+        // TODO: check the gravity in other viewparent types
+        return Gravity.BOTTOM;
+    }
+
     public CoordinatorLayout.Behavior getBehavior() {
         if (null == mBehavior) {
             if (CoordinatorLayout.LayoutParams.class.isInstance(getLayoutParams())) {
@@ -542,7 +760,7 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
         return mBehavior;
     }
 
-    private void setItems(MenuParser.Menu menu) {
+    void setItems(final MenuParser.Menu menu) {
         log(TAG, INFO, "setItems: %s", menu);
 
         this.menu = menu;
@@ -587,10 +805,21 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
         backgroundDrawable = (ColorDrawable) layerDrawable.findDrawableByLayerId(R.id.bbn_background);
         setBackground(layerDrawable);
 
+        if (asyncMenuPending && null == pendingMenu) {
+            applyPlaceholder();
+        }
+
         // Padding bottom
         setPadding(0, paddingBottom, 0, 0);
     }
 
+    /**
+     * Placeholder background while the menu is being inflated
+     */
+    private void applyPlaceholder() {
+        backgroundDrawable.setColor(MiscUtils.getColor(getContext(), android.R.attr.windowBackground));
+    }
+
     private void initializeBackgroundColor(final MenuParser.Menu menu) {
         log(TAG, INFO, "initializeBackgroundColor");
 
@@ -601,32 +830,37 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
 
     private void initializeContainer(final MenuParser.Menu menu) {
         log(TAG, INFO, "initializeContainer");
+        final boolean flat = !menu.isTablet() && flattenItems;
+
         if (null != itemsContainer) {
 
             // remove the layout listener
             log(TAG, VERBOSE, "remove listener from: %s", itemsContainer);
-            ((ViewGroup) itemsContainer).removeOnLayoutChangeListener(mLayoutChangedListener);
+            ((View) itemsContainer).removeOnLayoutChangeListener(mLayoutChangedListener);
 
-            if (menu.isTablet() && !TabletLayout.class.isInstance(itemsContainer)) {
-                removeView((View) itemsContainer);
-                itemsContainer = null;
-            } else if ((menu.isShifting() && !ShiftingLayout.class.isInstance(itemsContainer))
-                || (!menu.isShifting() && !FixedLayout.class.isInstance(itemsContainer))) {
+            if (getContainerClass(menu, flat).isInstance(itemsContainer)) {
+                itemsContainer.removeAll();
+            } else {
                 removeView((View) itemsContainer);
                 itemsContainer = null;
-            } else {
-                itemsContainer.removeAll();
             }
         }
 
+        if (!flat) {
+            initializeOverlays();
+        }
+
         if (null == itemsContainer) {
+            // the flat layout covers the bottom inset too, for the background color reveal
             LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
                 menu.isTablet() ? defaultWidth : MATCH_PARENT,
-                menu.isTablet() ? MATCH_PARENT : defaultHeight
+                menu.isTablet() || flat ? MATCH_PARENT : defaultHeight
             );
 
             if (menu.isTablet()) {
                 itemsContainer = new TabletLayout(getContext());
+            } else if (flat) {
+                itemsContainer = new FlatLayout(getContext(), defaultHeight);
             } else if (menu.isShifting()) {
                 itemsContainer = new ShiftingLayout(getContext());
             } else {
@@ -641,7 +875,21 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
 
         // add the layout listener
         log(TAG, VERBOSE, "attach listener to: %s", itemsContainer);
-        ((ViewGroup) itemsContainer).addOnLayoutChangeListener(mLayoutChangedListener);
+        ((View) itemsContainer).addOnLayoutChangeListener(mLayoutChangedListener);
+    }
+
+    /**
+     * Returns the items layout container type required by the passed menu
+     */
+    private static Class<? extends ItemsLayoutContainer> getContainerClass(final MenuParser.Menu menu, final boolean flat) {
+        if (menu.isTablet()) {
+            return TabletLayout.class;
+        } else if (flat) {
+            return FlatLayout.class;
+        } else if (menu.isShifting()) {
+            return ShiftingLayout.class;
+        }
+        return FixedLayout.class;
     }
 
     private void initializeItems(final MenuParser.Menu menu) {
@@ -655,7 +903,9 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
             backgroundDrawable.setColor(menu.getItemAt(defaultSelectedIndex).getColor());
         }
 
-        MiscUtils.setDrawableColor(rippleOverlay.getBackground(), menu.getRippleColor());
+        if (null != rippleOverlay) {
+            MiscUtils.setDrawableColor(rippleOverlay.getBackground(), menu.getRippleColor());
+        }
     }
 
     /**
@@ -715,7 +965,8 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
 
     @Override
     public void onItemPressed(final ItemsLayoutContainer parent, final View view, final boolean pressed) {
-        if (Build.VERSION.SDK_INT < 21) {
+        // the flat layout draws its own ripple
+        if (Build.VERSION.SDK_INT < 21 || FlatLayout.class.isInstance(parent)) {
             return;
         }
 
@@ -739,7 +990,9 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
     public void onItemClick(final ItemsLayoutContainer parent, final View view, final int index, boolean animate) {
         log(TAG, INFO, "onItemClick: %d", index);
         setSelectedItemInternal(parent, view, index, animate, true);
-        mLayoutChangedListener.forceLayout(view);
+        if (!FlatLayout.class.isInstance(parent)) {
+            mLayoutChangedListener.forceLayout(view);
+        }
     }
 
     private void setSelectedItemInternal(
@@ -759,7 +1012,10 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
             layoutContainer.setSelectedIndex(index, animate);
 
             if ((null != item && item.hasColor()) && !menu.isTablet()) {
-                if (animate) {
+                if (FlatLayout.class.isInstance(layoutContainer)) {
+                    ((FlatLayout) layoutContainer).revealBackgroundColor(
+                        index, backgroundDrawable, item.getColor(), animate ? backgroundColorAnimation : 0);
+                } else if (animate) {
                     MiscUtils.animate(
                         this,
                         view,
@@ -794,6 +1050,18 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
         this.typeface = new SoftReference<>(typeface);
     }
 
+    boolean isRasterCacheEnabled() {
+        return rasterCache;
+    }
+
+    /**
+     * Releases the icons and labels bitmaps shared by the instances using <code>bbn_rasterCache</code>.
+     * Can be called when the application is running low on memory
+     */
+    public static void clearRasterCache() {
+        RasterCache.clear();
+    }
+
     public void setDefaultSelectedIndex(final int defaultSelectedIndex) {
         this.defaultSelectedIndex = defaultSelectedIndex;
     }
@@ -801,11 +1069,7 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
     public void invalidateBadge(final int itemId) {
         log(TAG, INFO, "invalidateBadge: %d", itemId);
         if (null != itemsContainer) {
-            final BottomNavigationItemViewAbstract viewAbstract =
-                (BottomNavigationItemViewAbstract) itemsContainer.findViewById(itemId);
-            if (null != viewAbstract) {
-                viewAbstract.invalidateBadge();
-            }
+            itemsContainer.invalidateBadge(itemId);
         }
     }
 
@@ -861,12 +1125,14 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
 
     static class SavedState extends BaseSavedState {
         int selectedIndex;
-        Bundle badgeBundle;
+        BadgeProvider.SavedState badgeState;
 
         public SavedState(Parcel in) {
             super(in);
             selectedIndex = in.readInt();
-            badgeBundle = in.readBundle();
+            if (in.readInt() != 0) {
+                badgeState = BadgeProvider.SavedState.CREATOR.createFromParcel(in);
+            }
         }
 
         public SavedState(final Parcelable superState) {
@@ -877,7 +1143,12 @@ public class BottomNavigation extends FrameLayout implements OnItemClickListener
         public void writeToParcel(final Parcel out, final int flags) {
             super.writeToParcel(out, flags);
             out.writeInt(selectedIndex);
-            out.writeBundle(badgeBundle);
+            if (null != badgeState) {
+                out.writeInt(1);
+                badgeState.writeToParcel(out, flags);
+            } else {
+                out.writeInt(0);
+            }
         }
 
         @Override
@@ -1,20 +1,15 @@
 package it.sephiroth.android.library.bottomnavigation;
 
-import android.animation.AnimatorSet;
-import android.animation.ObjectAnimator;
-import android.animation.ValueAnimator;
 import android.annotation.SuppressLint;
 import android.content.res.Resources;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.PorterDuff;
-import android.support.v4.view.ViewCompat;
 import android.view.animation.DecelerateInterpolator;
 import android.view.animation.Interpolator;
 
 import it.sephiroth.android.library.bottonnavigation.R;
-import proguard.annotation.Keep;
 
 /**
  * Created by alessandro on 4/3/16 at 10:55 PM.
@@ -23,14 +18,58 @@ import proguard.annotation.Keep;
 @SuppressLint ("ViewConstructor")
 public class BottomNavigationFixedItemView extends BottomNavigationItemViewAbstract {
     private static final String TAG = BottomNavigationFixedItemView.class.getSimpleName();
+
+    private static final ItemAnimator.FloatProperty<BottomNavigationFixedItemView> TEXT_SCALE =
+        new ItemAnimator.FloatProperty<BottomNavigationFixedItemView>("textScale") {
+            @Override
+            void setValue(final BottomNavigationFixedItemView object, final float value) {
+                object.canvasTextScale = value;
+            }
+
+            @Override
+            float getValue(final BottomNavigationFixedItemView object) {
+                return object.canvasTextScale;
+            }
+        };
+
+    private static final ItemAnimator.FloatProperty<BottomNavigationFixedItemView> ICON_TRANSLATION =
+        new ItemAnimator.FloatProperty<BottomNavigationFixedItemView>("iconTranslation") {
+            @Override
+            void setValue(final BottomNavigationFixedItemView object, final float value) {
+                object.iconTranslation = value;
+            }
+
+            @Override
+            float getValue(final BottomNavigationFixedItemView object) {
+                return object.iconTranslation;
+            }
+        };
+
+    /**
+     * 0 (inactive) to 1 (active), drives the icon and text color
+     */
+    private static final ItemAnimator.FloatProperty<BottomNavigationFixedItemView> EXPANSION =
+        new ItemAnimator.FloatProperty<BottomNavigationFixedItemView>("expansion") {
+            @Override
+            void setValue(final BottomNavigationFixedItemView object, final float value) {
+                object.expansion = value;
+                object.updateColors();
+            }
+
+            @Override
+            float getValue(final BottomNavigationFixedItemView object) {
+                return object.expansion;
+            }
+        };
+
     private final int iconSize;
-    private int centerY;
+    private final int centerY;
     private final Interpolator interpolator = new DecelerateInterpolator();
+    private final ItemAnimator<BottomNavigationFixedItemView> animator;
     private float textWidth;
     private long animationDuration;
     private final int colorActive;
     private final int colorInactive;
-    private final int colorDisabled;
 
     private final int paddingTopActive;
     private final int paddingTopInactive;
@@ -41,12 +80,21 @@ public class BottomNavigationFixedItemView extends BottomNavigationItemViewAbstr
     private static final float TEXT_SCALE_ACTIVE = 1.1666666667f;
     private float canvasTextScale;
     private float iconTranslation;
+    private float expansion;
     private int textCenterX;
     private int textCenterY;
     private int centerX;
     private float textX;
     private float textY;
 
+    /**
+     * Pre-rasterized labels at the inactive and active text size, when using the raster cache
+     */
+    private Bitmap labelInactive;
+    private Bitmap labelActive;
+    private int labelInactiveBaseline;
+    private int labelActiveBaseline;
+
     public BottomNavigationFixedItemView(final BottomNavigation parent, boolean expanded, final MenuParser.Menu menu) {
         super(parent, expanded, menu);
 
@@ -61,10 +109,11 @@ public class BottomNavigationFixedItemView extends BottomNavigationItemViewAbstr
         this.animationDuration = menu.getItemAnimationDuration();
         this.colorActive = menu.getColorActive();
         this.colorInactive = menu.getColorInactive();
-        this.colorDisabled = menu.getColorDisabled();
         this.centerY = paddingTopActive;
         this.canvasTextScale = expanded ? TEXT_SCALE_ACTIVE : 1f;
         this.iconTranslation = expanded ? 0 : (paddingTopInactive - paddingTopActive);
+        this.expansion = expanded ? 1 : 0;
+        this.animator = new ItemAnimator<>(this, interpolator).add(TEXT_SCALE).add(ICON_TRANSLATION).add(EXPANSION);
 
         this.textPaint.setColor(Color.WHITE);
         this.textPaint.setHinting(Paint.HINTING_ON);
@@ -77,72 +126,43 @@ public class BottomNavigationFixedItemView extends BottomNavigationItemViewAbstr
     @Override
     public void setEnabled(final boolean enabled) {
         super.setEnabled(enabled);
-        this.textPaint.setColor(isExpanded() ? (enabled ? colorActive : colorDisabled) : (enabled ? colorInactive : colorDisabled));
-
-        if (null != icon) {
-            updateLayoutOnAnimation(1, isExpanded());
-        }
+        updateColors();
         requestLayout();
     }
 
     @Override
     protected void onStatusChanged(final boolean expanded, final int size, final boolean animate) {
-
-        if (!animate) {
-            updateLayoutOnAnimation(1, expanded);
-            setIconTranslation(expanded ? 0 : (paddingTopInactive - paddingTopActive));
-            return;
-        }
-
-        final AnimatorSet set = new AnimatorSet();
-        set.setDuration(animationDuration);
-        set.setInterpolator(interpolator);
-
-        final ValueAnimator animator1 = ObjectAnimator.ofFloat(this, "textScale", expanded ? TEXT_SCALE_ACTIVE : 1);
-
-        animator1.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(final ValueAnimator animation) {
-                final float fraction = animation.getAnimatedFraction();
-                updateLayoutOnAnimation(fraction, expanded);
-            }
-        });
-
-        final ValueAnimator animator2 =
-            ObjectAnimator.ofFloat(this, "iconTranslation", expanded ? 0 : (paddingTopInactive - paddingTopActive));
-
-        set.playTogether(animator1, animator2);
-        set.start();
+        animator.prepare()
+            .setValue(TEXT_SCALE, expanded ? TEXT_SCALE_ACTIVE : 1)
+            .setValue(ICON_TRANSLATION, expanded ? 0 : (paddingTopInactive - paddingTopActive))
+            .setValue(EXPANSION, expanded ? 1 : 0)
+            .start(animate ? animationDuration : 0);
     }
 
-    private void updateLayoutOnAnimation(final float fraction, final boolean expanded) {
-        final boolean enabled = isEnabled();
-        final int dstColor = enabled ? (expanded ? colorActive : colorInactive) : colorDisabled;
-        final int srcColor = enabled ? (expanded ? colorInactive : colorActive) : colorDisabled;
-        final int color = (Integer) evaluator.evaluate(fraction, srcColor, dstColor);
+    private void updateColors() {
+        final ColorTransition transition = getColorTransition();
+        final int index = transition.indexOf(expansion);
+        final int color = transition.getColor(index);
 
-        icon.setColorFilter(color, PorterDuff.Mode.SRC_ATOP);
-        icon.setAlpha(Color.alpha(color));
+        if (null != icon) {
+            setIconColorFilter(transition.getColorFilter(index));
+            icon.setAlpha(Color.alpha(color));
+        }
         textPaint.setColor(color);
-        ViewCompat.postInvalidateOnAnimation(this);
     }
 
     @Override
     protected void onLayout(final boolean changed, final int left, final int top, final int right, final int bottom) {
         super.onLayout(changed, left, top, right, bottom);
 
-        if (null == this.icon) {
-            this.icon = getItem().getIcon(getContext()).mutate();
-
-            final int color =
-                isExpanded() ? (isEnabled() ? colorActive : colorDisabled) : (isEnabled() ? colorInactive : colorDisabled);
-
-            this.icon.setColorFilter(color, PorterDuff.Mode.SRC_ATOP);
+        final boolean iconChanged = null == this.icon;
+        if (iconChanged) {
+            this.icon = loadIcon(iconSize);
             this.icon.setBounds(0, 0, iconSize, iconSize);
-            this.icon.setAlpha(Color.alpha(color));
+            updateColors();
         }
 
-        if (changed) {
+        if (changed || iconChanged) {
             int w = right - left;
             centerX = (w - iconSize) / 2;
             icon.setBounds(centerX, centerY, centerX + iconSize, centerY + iconSize);
@@ -163,6 +183,33 @@ public class BottomNavigationFixedItemView extends BottomNavigationItemViewAbstr
         textY = height - paddingBottom;
         textCenterX = width / 2;
         textCenterY = height - paddingBottom;
+
+        if (rasterCache) {
+            final String title = getItem().getTitle();
+            final float textSizeActive = textSizeInactive * TEXT_SCALE_ACTIVE;
+            labelInactive = RasterCache.getLabel(title, textPaint, textSizeInactive);
+            labelInactiveBaseline = RasterCache.getLabelBaseline(textPaint, textSizeInactive);
+            labelActive = RasterCache.getLabel(title, textPaint, textSizeActive);
+            labelActiveBaseline = RasterCache.getLabelBaseline(textPaint, textSizeActive);
+        }
+    }
+
+    /**
+     * Draws the pre-rasterized label closest to the current text scale: the active label is scaled down
+     * while animating, the bitmaps are drawn unscaled once the animation is completed
+     */
+    private void drawLabel(final Canvas canvas) {
+        final boolean active = canvasTextScale > 1;
+        final Bitmap label = active ? labelActive : labelInactive;
+        final int baseline = active ? labelActiveBaseline : labelInactiveBaseline;
+        final float scale = active ? canvasTextScale / TEXT_SCALE_ACTIVE : canvasTextScale;
+
+        canvas.save();
+        if (scale != 1) {
+            canvas.scale(scale, scale, textCenterX, textCenterY);
+        }
+        canvas.drawBitmap(label, textCenterX - label.getWidth() / 2f, textCenterY - baseline, textPaint);
+        canvas.restore();
     }
 
     @Override
@@ -175,6 +222,11 @@ public class BottomNavigationFixedItemView extends BottomNavigationItemViewAbstr
         drawBadge(canvas);
         canvas.restore();
 
+        if (null != labelActive) {
+            drawLabel(canvas);
+            return;
+        }
+
         canvas.save();
         canvas.scale(canvasTextScale, canvasTextScale, textCenterX, textCenterY);
 
@@ -188,44 +240,4 @@ public class BottomNavigationFixedItemView extends BottomNavigationItemViewAbstr
         canvas.restore();
 
     }
-
-    @SuppressWarnings ("unused")
-    @Keep
-    public int getCenterY() {
-        return centerY;
-    }
-
-    @SuppressWarnings ("unused")
-    @Keep
-    public void setCenterY(int value) {
-        centerY = value;
-        ViewCompat.postInvalidateOnAnimation(this);
-    }
-
-    @SuppressWarnings ("unused")
-    @Keep
-    public void setTextScale(final float value) {
-        canvasTextScale = value;
-        ViewCompat.postInvalidateOnAnimation(this);
-    }
-
-    @SuppressWarnings ("unused")
-    @Keep
-    public float getTextScale() {
-        return canvasTextScale;
-    }
-
-    @Keep
-    @SuppressWarnings ("unused")
-    public void setIconTranslation(final float iconTranslation) {
-        this.iconTranslation = iconTranslation;
-        ViewCompat.postInvalidateOnAnimation(this);
-    }
-
-    @Keep
-    @SuppressWarnings ("unused")
-    public float getIconTranslation() {
-        return iconTranslation;
-    }
-
 }
@@ -21,10 +21,22 @@ public class BottomNavigationItem {
         this.enabled = true;
     }
 
+    BottomNavigationItem(final BottomNavigationItem other) {
+        this.id = other.id;
+        this.iconResource = other.iconResource;
+        this.title = other.title;
+        this.color = other.color;
+        this.enabled = other.enabled;
+    }
+
     protected Drawable getIcon(Context context) {
         return AppCompatResources.getDrawable(context, this.iconResource);
     }
 
+    int getIconResource() {
+        return iconResource;
+    }
+
     protected String getTitle() {
         return title;
     }
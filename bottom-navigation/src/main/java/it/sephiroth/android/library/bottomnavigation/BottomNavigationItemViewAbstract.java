@@ -1,11 +1,12 @@
 package it.sephiroth.android.library.bottomnavigation;
 
-import android.animation.ArgbEvaluator;
 import android.graphics.Canvas;
+import android.graphics.ColorFilter;
 import android.graphics.Paint;
 import android.graphics.Rect;
 import android.graphics.Typeface;
 import android.graphics.drawable.Drawable;
+import android.text.TextUtils;
 import android.view.View;
 
 import java.lang.ref.SoftReference;
@@ -20,23 +21,78 @@ abstract class BottomNavigationItemViewAbstract extends View {
     private boolean expanded;
     protected final Paint textPaint;
     protected boolean textDirty;
-    protected final ArgbEvaluator evaluator;
     private final BadgeProvider provider;
     protected Drawable badge;
+    private int badgeCount;
     protected Drawable icon;
+    protected final ColorTransition colorTransition;
+    protected final ColorTransition disabledColorTransition;
+    private ColorFilter iconColorFilter;
+    private Drawable iconColorFilterTarget;
+    protected final boolean rasterCache;
 
     public BottomNavigationItemViewAbstract(final BottomNavigation parent, final boolean expanded, final MenuParser.Menu menu) {
         super(parent.getContext());
-        this.evaluator = new ArgbEvaluator();
         this.rippleColor = menu.getRippleColor();
         this.textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         this.textDirty = true;
         this.expanded = expanded;
         this.provider = parent.getBadgeProvider();
+        this.colorTransition = menu.getItemColorTransition();
+        this.disabledColorTransition = menu.getDisabledColorTransition();
+        this.rasterCache = parent.isRasterCacheEnabled();
+
+        if (rasterCache) {
+            this.textPaint.setFilterBitmap(true);
+        }
+    }
+
+    /**
+     * Creates the drawable for the item icon
+     *
+     * @param size icon size, in pixels
+     */
+    protected final Drawable loadIcon(final int size) {
+        if (rasterCache) {
+            return RasterCache.getIcon(getContext(), item, size);
+        }
+        return item.getIcon(getContext()).mutate();
+    }
+
+    /**
+     * Returns the color transition for the current enabled status
+     */
+    protected final ColorTransition getColorTransition() {
+        return isEnabled() ? colorTransition : disabledColorTransition;
+    }
+
+    /**
+     * Sets the icon color filter, only if it's changed since the last call
+     */
+    protected final void setIconColorFilter(final ColorFilter filter) {
+        if (null != icon && (filter != iconColorFilter || icon != iconColorFilterTarget)) {
+            icon.setColorFilter(filter);
+            iconColorFilter = filter;
+            iconColorFilterTarget = icon;
+        }
     }
 
     void setItem(BottomNavigationItem item) {
+        final BottomNavigationItem previous = this.item;
         this.item = item;
+
+        // rebinding an existing view to a new item
+        if (null != previous) {
+            if (previous.getIconResource() != item.getIconResource()) {
+                this.icon = null;
+                requestLayout();
+            }
+            if (!TextUtils.equals(previous.getTitle(), item.getTitle())) {
+                this.textDirty = true;
+                requestLayout();
+            }
+        }
+
         this.setId(item.getId());
         this.setEnabled(item.isEnabled());
         // this.setBackground(drawable);
@@ -44,7 +100,16 @@ abstract class BottomNavigationItemViewAbstract extends View {
     }
 
     void invalidateBadge() {
-        Drawable d = provider.getBadge(getId());
+        final boolean visible = provider.hasBadge(getId());
+        final int count = provider.getCount(getId());
+
+        // nothing visible changed, keep the current drawable
+        if (visible == (null != badge) && count == badgeCount) {
+            return;
+        }
+
+        badgeCount = count;
+        Drawable d = visible ? provider.getBadge(getId()) : null;
 
         if (badge != d) {
             if (null != badge) {
@@ -59,10 +124,10 @@ abstract class BottomNavigationItemViewAbstract extends View {
                     ((BadgeDrawable) badge).setIsAnimating(false);
                 }
             }
+        }
 
-            if (null != getParent()) {
-                invalidate();
-            }
+        if (null != getParent()) {
+            invalidate();
         }
     }
 
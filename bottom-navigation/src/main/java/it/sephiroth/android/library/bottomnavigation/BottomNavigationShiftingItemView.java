@@ -1,15 +1,12 @@
 package it.sephiroth.android.library.bottomnavigation;
 
-import android.animation.AnimatorSet;
-import android.animation.ObjectAnimator;
-import android.animation.ValueAnimator;
 import android.annotation.SuppressLint;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.PorterDuff;
-import android.view.animation.DecelerateInterpolator;
-import android.view.animation.Interpolator;
+import android.graphics.Rect;
+import android.support.v4.view.ViewCompat;
 
 import it.sephiroth.android.library.bottonnavigation.R;
 
@@ -24,6 +21,7 @@ import static it.sephiroth.android.library.bottomnavigation.MiscUtils.log;
 @SuppressLint ("ViewConstructor")
 public class BottomNavigationShiftingItemView extends BottomNavigationItemViewAbstract {
     private static final String TAG = BottomNavigationShiftingItemView.class.getSimpleName();
+
     private final int paddingTop;
     private final int paddingBottomActive;
     private final int iconSize;
@@ -31,17 +29,22 @@ public class BottomNavigationShiftingItemView extends BottomNavigationItemViewAb
     private final int textSize;
 
     private int centerY;
+
+    /**
+     * 0 (inactive) to 1 (active), drives the icon position, color and alpha and the text alpha
+     */
+    private float expansion;
     private final float alphaActive;
     private final float alphaInactive;
     private final float alphaDisabled;
-    private final Interpolator interpolator = new DecelerateInterpolator();
     private float textWidth;
-    private long animationDuration;
     private final int colorActive;
     private final int colorInactive;
     private final int colorDisabled;
     private float textX;
     private int textY;
+    private Bitmap label;
+    private int labelBaseline;
 
     public BottomNavigationShiftingItemView(final BottomNavigation parent, boolean expanded, final MenuParser.Menu menu) {
         super(parent, expanded, menu);
@@ -52,7 +55,6 @@ public class BottomNavigationShiftingItemView extends BottomNavigationItemViewAb
         this.iconSize = getResources().getDimensionPixelSize(R.dimen.bbn_shifting_item_icon_size);
         this.textSize = getResources().getDimensionPixelSize(R.dimen.bbn_shifting_text_size);
 
-        this.animationDuration = menu.getItemAnimationDuration();
         this.colorActive = menu.getColorActive();
         this.colorInactive = menu.getColorInactive();
         this.colorDisabled = menu.getColorDisabled();
@@ -61,6 +63,7 @@ public class BottomNavigationShiftingItemView extends BottomNavigationItemViewAb
         this.alphaActive = Math.max((float) Color.alpha(colorActive) / ALPHA_MAX, alphaInactive);
 
         this.centerY = expanded ? paddingTop : paddingBottomInactive;
+        this.expansion = expanded ? 1 : 0;
         this.textPaint.setHinting(Paint.HINTING_ON);
         this.textPaint.setLinearText(true);
         this.textPaint.setSubpixelText(true);
@@ -80,92 +83,81 @@ public class BottomNavigationShiftingItemView extends BottomNavigationItemViewAb
     @Override
     public void setEnabled(final boolean enabled) {
         super.setEnabled(enabled);
-
-        textPaint.setAlpha(
-            (int) ((isExpanded() ? (enabled ? alphaActive : alphaDisabled) : 0) * ALPHA_MAX));
-
-        if (null != icon) {
-            updateLayoutOnAnimation(getLayoutParams().width, 1, isExpanded());
-        }
-
+        updateColors();
         requestLayout();
     }
 
     @Override
     protected void onStatusChanged(final boolean expanded, final int size, final boolean animate) {
-        log(TAG, INFO, "[%s] onStatusChanged(%b, %d)", getItem().getTitle(), expanded, size);
+        if (BottomNavigation.DEBUG) {
+            log(TAG, INFO, "[%s] onStatusChanged(%b, %d)", getItem().getTitle(), expanded, size);
+        }
 
+        // final width, used by the next layout pass
+        getLayoutParams().width = size;
+
+        // when animated, the transition is driven by the parent ShiftingLayout through setExpansion
         if (!animate) {
-            updateLayoutOnAnimation(size, 1, expanded);
-            setCenterY(expanded ? paddingTop : paddingBottomInactive);
-            return;
+            setExpansion(expanded ? 1 : 0);
+            requestLayout();
         }
+    }
 
-        final AnimatorSet set = new AnimatorSet();
-        set.setDuration(animationDuration * 2);
-        set.setInterpolator(interpolator);
-        final ValueAnimator animator1 = ValueAnimator.ofInt(getLayoutParams().width, size);
-        final ValueAnimator animator2 = ObjectAnimator.ofInt(this, "centerY", expanded ? paddingBottomInactive : paddingTop,
-            expanded ? paddingTop : paddingBottomInactive
-        );
-
-        animator1.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(final ValueAnimator animation) {
-                int size = (int) animation.getAnimatedValue();
-                final float fraction = animation.getAnimatedFraction();
-                updateLayoutOnAnimation(size, fraction, expanded);
-            }
-        });
-
-        set.playTogether(animator1, animator2);
-        set.start();
+    float getExpansion() {
+        return expansion;
     }
 
-    private void updateLayoutOnAnimation(final int size, final float fraction, final boolean expanded) {
-        getLayoutParams().width = size;
-        final int color;
-        final boolean enabled = isEnabled();
+    /**
+     * Updates the icon position and the colors for the passed expansion value.
+     * The icon bounds are directly updated, no layout pass is needed.
+     *
+     * @param value 0 (inactive) to 1 (active)
+     */
+    void setExpansion(final float value) {
+        expansion = value;
+        centerY = (int) (paddingBottomInactive + (paddingTop - paddingBottomInactive) * value);
 
-        final int srcColor = enabled ? (expanded ? colorInactive : colorActive) : colorDisabled;
-        final int dstColor = enabled ? (expanded ? colorActive : colorInactive) : colorDisabled;
-        final float srcAlpha = enabled ? alphaInactive : alphaDisabled;
-        final float dstAlpha = enabled ? alphaActive : alphaDisabled;
-        if (expanded) {
-            color = (Integer) evaluator.evaluate(fraction, srcColor, dstColor);
-            icon.setAlpha((int) ((srcAlpha + (fraction * (dstAlpha - srcAlpha))) * ALPHA_MAX));
-            textPaint.setAlpha((int) (((fraction * (dstAlpha))) * ALPHA_MAX));
-        } else {
-            color = (Integer) evaluator.evaluate(fraction, srcColor, dstColor);
-            final float alpha = 1.0F - fraction;
-            icon.setAlpha((int) ((srcAlpha + (alpha * (dstAlpha - srcAlpha))) * ALPHA_MAX));
-            textPaint.setAlpha((int) (((alpha * (dstAlpha))) * ALPHA_MAX));
+        if (null != icon) {
+            final Rect bounds = icon.getBounds();
+            icon.setBounds(bounds.left, centerY, bounds.left + iconSize, centerY + iconSize);
         }
 
-        icon.setColorFilter(color, PorterDuff.Mode.SRC_ATOP);
+        updateColors();
+        ViewCompat.postInvalidateOnAnimation(this);
+    }
+
+    private void updateColors() {
+        final boolean enabled = isEnabled();
+        final ColorTransition transition = getColorTransition();
+        final float iconAlpha = enabled ? alphaInactive + (alphaActive - alphaInactive) * expansion : alphaDisabled;
+        final float textAlpha = expansion * (enabled ? alphaActive : alphaDisabled);
+
+        if (null != icon) {
+            setIconColorFilter(transition.getColorFilter(transition.indexOf(expansion)));
+            icon.setAlpha((int) (iconAlpha * ALPHA_MAX));
+        }
+        textPaint.setAlpha((int) (textAlpha * ALPHA_MAX));
     }
 
     private void measureText() {
         this.textWidth = textPaint.measureText(getItem().getTitle());
+
+        if (rasterCache) {
+            this.label = RasterCache.getLabel(getItem().getTitle(), textPaint, textSize);
+            this.labelBaseline = RasterCache.getLabelBaseline(textPaint, textSize);
+        }
     }
 
     @Override
     protected void onLayout(final boolean changed, final int left, final int top, final int right, final int bottom) {
         super.onLayout(changed, left, top, right, bottom);
 
-        if (null == this.icon) {
-            this.icon = getItem().getIcon(getContext()).mutate();
+        final boolean iconChanged = null == this.icon;
+        final boolean textChanged = textDirty;
+        if (iconChanged) {
+            this.icon = loadIcon(iconSize);
             icon.setBounds(0, 0, iconSize, iconSize);
-            icon.setColorFilter(
-                isExpanded() ? (isEnabled() ? colorActive : colorDisabled) : (isEnabled() ? colorInactive : colorDisabled),
-                PorterDuff
-                    .Mode
-                    .SRC_ATOP
-            );
-
-            icon.setAlpha(
-                (int) (isExpanded() ? (isEnabled() ? alphaActive : alphaDisabled) * ALPHA_MAX
-                    : (isEnabled() ? alphaInactive : alphaDisabled) * ALPHA_MAX));
+            updateColors();
         }
 
         if (textDirty) {
@@ -173,7 +165,7 @@ public class BottomNavigationShiftingItemView extends BottomNavigationItemViewAb
             textDirty = false;
         }
 
-        if (changed) {
+        if (changed || iconChanged || textChanged) {
             int w = right - left;
             int h = bottom - top;
             int centerX = (w - iconSize) / 2;
@@ -187,26 +179,16 @@ public class BottomNavigationShiftingItemView extends BottomNavigationItemViewAb
     protected void onDraw(final Canvas canvas) {
         super.onDraw(canvas);
         icon.draw(canvas);
-        canvas.drawText(
-            getItem().getTitle(),
-            textX,
-            textY,
-            textPaint
-        );
+        if (null != label) {
+            canvas.drawBitmap(label, textX - RasterCache.LABEL_PADDING, textY - labelBaseline, textPaint);
+        } else {
+            canvas.drawText(
+                getItem().getTitle(),
+                textX,
+                textY,
+                textPaint
+            );
+        }
         drawBadge(canvas);
     }
-
-    @SuppressWarnings ("unused")
-    @proguard.annotation.Keep
-    public int getCenterY() {
-        return centerY;
-    }
-
-    @SuppressWarnings ("unused")
-    @proguard.annotation.Keep
-    public void setCenterY(int value) {
-        centerY = value;
-        requestLayout();
-    }
-
 }
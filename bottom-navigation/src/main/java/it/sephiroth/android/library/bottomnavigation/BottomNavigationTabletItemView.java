@@ -1,14 +1,9 @@
 package it.sephiroth.android.library.bottomnavigation;
 
-import android.animation.ArgbEvaluator;
-import android.animation.ObjectAnimator;
-import android.animation.ValueAnimator;
 import android.annotation.SuppressLint;
 import android.content.res.Resources;
 import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.PorterDuff;
-import android.support.v4.view.ViewCompat;
 import android.view.animation.DecelerateInterpolator;
 import android.view.animation.Interpolator;
 
@@ -21,73 +16,74 @@ import it.sephiroth.android.library.bottonnavigation.R;
 @SuppressLint ("ViewConstructor")
 public class BottomNavigationTabletItemView extends BottomNavigationItemViewAbstract {
     private static final String TAG = BottomNavigationTabletItemView.class.getSimpleName();
+
+    /**
+     * 0 (inactive) to 1 (active), drives the icon color
+     */
+    private static final ItemAnimator.FloatProperty<BottomNavigationTabletItemView> EXPANSION =
+        new ItemAnimator.FloatProperty<BottomNavigationTabletItemView>("expansion") {
+            @Override
+            void setValue(final BottomNavigationTabletItemView object, final float value) {
+                object.expansion = value;
+                object.updateColors();
+            }
+
+            @Override
+            float getValue(final BottomNavigationTabletItemView object) {
+                return object.expansion;
+            }
+        };
+
     private final int iconSize;
 
     private final Interpolator interpolator = new DecelerateInterpolator();
     private long animationDuration;
-    private final int colorActive;
-    private final int colorInactive;
-    private final int colorDisabled;
-    private final ArgbEvaluator evaluator;
+    private float expansion;
+    private final ItemAnimator<BottomNavigationTabletItemView> animator;
 
     public BottomNavigationTabletItemView(final BottomNavigation parent, boolean expanded, final MenuParser.Menu menu) {
         super(parent, expanded, menu);
-        this.evaluator = new ArgbEvaluator();
         final Resources res = getResources();
         this.iconSize = res.getDimensionPixelSize(R.dimen.bbn_tablet_item_icon_size);
         this.animationDuration = menu.getItemAnimationDuration();
-        this.colorActive = menu.getColorActive();
-        this.colorInactive = menu.getColorInactive();
-        this.colorDisabled = menu.getColorDisabled();
+        this.expansion = expanded ? 1 : 0;
+        this.animator = new ItemAnimator<>(this, interpolator).add(EXPANSION);
     }
 
     @Override
-    protected void onStatusChanged(final boolean expanded, final int size, final boolean animate) {
-        if (!animate) {
-            updateLayoutOnAnimation(1, expanded);
-            return;
-        }
-
-        final ValueAnimator animator = ObjectAnimator.ofFloat(0, 1);
-        animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(final ValueAnimator animation) {
-                updateLayoutOnAnimation(animation.getAnimatedFraction(), expanded);
-            }
-        });
-        animator.setDuration(animationDuration);
-        animator.setInterpolator(interpolator);
-        animator.start();
+    public void setEnabled(final boolean enabled) {
+        super.setEnabled(enabled);
+        updateColors();
     }
 
-    private void updateLayoutOnAnimation(final float fraction, final boolean expanded) {
-        final boolean enabled = isEnabled();
-        final int dstColor = enabled ? (expanded ? colorActive : colorInactive) : colorDisabled;
-        final int srcColor = enabled ? (expanded ? colorInactive : colorActive) : colorDisabled;
-        final int color = (Integer) evaluator.evaluate(fraction, srcColor, dstColor);
-
-        icon.setColorFilter(color, PorterDuff.Mode.SRC_ATOP);
-        icon.setAlpha(Color.alpha(color));
+    @Override
+    protected void onStatusChanged(final boolean expanded, final int size, final boolean animate) {
+        animator.prepare()
+            .setValue(EXPANSION, expanded ? 1 : 0)
+            .start(animate ? animationDuration : 0);
+    }
 
-        ViewCompat.postInvalidateOnAnimation(this);
+    private void updateColors() {
+        if (null != icon) {
+            final ColorTransition transition = getColorTransition();
+            final int index = transition.indexOf(expansion);
+            setIconColorFilter(transition.getColorFilter(index));
+            icon.setAlpha(Color.alpha(transition.getColor(index)));
+        }
     }
 
     @Override
     protected void onLayout(final boolean changed, final int left, final int top, final int right, final int bottom) {
         super.onLayout(changed, left, top, right, bottom);
 
-        if (null == this.icon) {
-            this.icon = getItem().getIcon(getContext()).mutate();
-            this.icon.setColorFilter(
-                isExpanded() ? (isEnabled() ? colorActive : colorDisabled) : (isEnabled() ? colorInactive : colorDisabled),
-                PorterDuff.Mode.SRC_ATOP
-            );
-            this.icon.setAlpha(Color
-                .alpha(isExpanded() ? (isEnabled() ? colorActive : colorDisabled) : (isEnabled() ? colorInactive : colorDisabled)));
+        final boolean iconChanged = null == this.icon;
+        if (iconChanged) {
+            this.icon = loadIcon(iconSize);
             this.icon.setBounds(0, 0, iconSize, iconSize);
+            updateColors();
         }
 
-        if (changed) {
+        if (changed || iconChanged) {
             final int w = right - left;
             final int h = bottom - top;
             final int centerX = (w - iconSize) / 2;
@@ -0,0 +1,76 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+/**
+ * Precomputed ARGB interpolation between two colors.<br />
+ * The fraction is quantized to {@link #STEPS} values, so that per-frame lookups don't do any
+ * math on the color channels and other per-step resources (see {@link ColorTransition}) can be cached.
+ */
+final class ColorTable {
+    /**
+     * Number of interpolation steps, enough for a smooth transition at 60fps for the
+     * typical item animation durations
+     */
+    static final int STEPS = 64;
+
+    private final int[] colors;
+
+    ColorTable(final int from, final int to) {
+        if (from == to) {
+            colors = new int[]{from};
+        } else {
+            colors = new int[STEPS];
+            for (int i = 0; i < STEPS; i++) {
+                colors[i] = blend(from, to, (float) i / (STEPS - 1));
+            }
+        }
+    }
+
+    /**
+     * Number of distinct colors in this table
+     */
+    int size() {
+        return colors.length;
+    }
+
+    /**
+     * Returns the table index for the passed fraction (0 to 1)
+     */
+    int indexOf(final float fraction) {
+        if (fraction <= 0) {
+            return 0;
+        } else if (fraction >= 1) {
+            return colors.length - 1;
+        }
+        return (int) (fraction * (colors.length - 1) + 0.5f);
+    }
+
+    int get(final int index) {
+        return colors[index];
+    }
+
+    int colorAt(final float fraction) {
+        return colors[indexOf(fraction)];
+    }
+
+    /**
+     * Linear interpolation of two ARGB colors, channel by channel
+     */
+    static int blend(final int from, final int to, final float fraction) {
+        final int a = blendChannel(from >>> 24, to >>> 24, fraction);
+        final int r = blendChannel((from >> 16) & 0xff, (to >> 16) & 0xff, fraction);
+        final int g = blendChannel((from >> 8) & 0xff, (to >> 8) & 0xff, fraction);
+        final int b = blendChannel(from & 0xff, to & 0xff, fraction);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * Returns the passed ARGB color with half of its alpha, used for the inactive and disabled item colors
+     */
+    static int halveAlpha(final int color) {
+        return ((color >>> 24) / 2) << 24 | (color & 0x00ffffff);
+    }
+
+    private static int blendChannel(final int from, final int to, final float fraction) {
+        return (int) (from + (to - from) * fraction);
+    }
+}
@@ -0,0 +1,37 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+import android.graphics.ColorFilter;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
+
+/**
+ * Color transition between two colors, with a {@link ColorTable} lookup and a pool of
+ * SRC_ATOP color filters (one per table step, lazily created and then reused).<br />
+ * Once all the steps have been used, animating an icon color doesn't allocate anything.
+ */
+final class ColorTransition {
+    private final ColorTable table;
+    private final PorterDuffColorFilter[] filters;
+
+    ColorTransition(final int from, final int to) {
+        table = new ColorTable(from, to);
+        filters = new PorterDuffColorFilter[table.size()];
+    }
+
+    int indexOf(final float fraction) {
+        return table.indexOf(fraction);
+    }
+
+    int getColor(final int index) {
+        return table.get(index);
+    }
+
+    ColorFilter getColorFilter(final int index) {
+        PorterDuffColorFilter filter = filters[index];
+        if (null == filter) {
+            filter = new PorterDuffColorFilter(table.get(index), PorterDuff.Mode.SRC_ATOP);
+            filters[index] = filter;
+        }
+        return filter;
+    }
+}
@@ -0,0 +1,203 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.support.annotation.Nullable;
+import android.util.LruCache;
+import android.util.SparseArray;
+
+/**
+ * Badge displaying its count, capped to a maximum value (e.g. "99+"). Without a count it's drawn as the
+ * default dot badge.<br />
+ * The count labels are laid out once, text and width, and cached by typeface, text size and cap in a small
+ * LRU cache: changing the count only swaps the cached layout, nothing is formatted or measured again.
+ * Main thread only.
+ */
+public class CountBadgeDrawable extends BadgeDrawable {
+    public static final int DEFAULT_MAX_COUNT = 99;
+    private static final float PADDING_RATIO = 0.25f;
+
+    /**
+     * Maximum number of cached label tables: a process uses a handful of badge styles
+     */
+    private static final int MAX_LAYOUTS = 8;
+
+    private static final LruCache<String, TextLayouts> LAYOUTS = new LruCache<>(MAX_LAYOUTS);
+
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.SUBPIXEL_TEXT_FLAG);
+    private final RectF rect = new RectF();
+    private final int countSize;
+    private TextLayouts layouts;
+    private TextLayout label;
+
+    /**
+     * @param color     badge color
+     * @param size      size of the badge without count
+     * @param countSize size of the badge with a count
+     * @param textColor count text color
+     * @param textSize  count text size
+     * @param typeface  count typeface, null for the default one
+     * @param maxCount  greatest count displayed as it is, greater counts are displayed as "maxCount+". Must be
+     *                  at least 1
+     */
+    public CountBadgeDrawable(
+        final int color, final int size, final int countSize, final int textColor, final float textSize,
+        @Nullable final Typeface typeface, final int maxCount) {
+        super(color, size);
+        checkMaxCount(maxCount);
+        this.countSize = countSize;
+        textPaint.setColor(textColor);
+        textPaint.setTextSize(textSize);
+        textPaint.setTypeface(typeface);
+        layouts = getLayouts(typeface, textSize, maxCount);
+    }
+
+    public int getMaxCount() {
+        return layouts.maxCount;
+    }
+
+    /**
+     * @param maxCount greatest count displayed as it is, at least 1
+     */
+    public void setMaxCount(final int maxCount) {
+        checkMaxCount(maxCount);
+        if (maxCount != layouts.maxCount) {
+            setLayouts(getLayouts(textPaint.getTypeface(), textPaint.getTextSize(), maxCount));
+        }
+    }
+
+    /**
+     * Changes the count typeface, used when a pooled drawable is reused
+     *
+     * @param typeface the count typeface, null for the default one
+     */
+    void setTypeface(@Nullable final Typeface typeface) {
+        if (typeface != layouts.typeface) {
+            textPaint.setTypeface(typeface);
+            setLayouts(getLayouts(typeface, textPaint.getTextSize(), layouts.maxCount));
+        }
+    }
+
+    private void setLayouts(final TextLayouts newLayouts) {
+        layouts = newLayouts;
+        onCountChanged(getCount());
+        invalidateSelf();
+    }
+
+    static void checkMaxCount(final int maxCount) {
+        if (maxCount < 1) {
+            throw new IllegalArgumentException("maxCount must be at least 1: " + maxCount);
+        }
+    }
+
+    @Override
+    protected void onCountChanged(final int count) {
+        label = count == BadgeStore.NO_COUNT ? null : layouts.get(count);
+    }
+
+    @Override
+    protected void onDraw(final Canvas canvas, final Paint paint, final float scale) {
+        if (null == label) {
+            super.onDraw(canvas, paint, scale);
+            return;
+        }
+
+        final Rect bounds = getBounds();
+        final float cx = bounds.centerX() + bounds.width() / 2;
+        final float cy = bounds.centerY() - bounds.height() / 2;
+        final float radius = bounds.height() / 2f;
+        final float halfWidth = Math.max(radius, label.width / 2 + bounds.height() * PADDING_RATIO);
+
+        final int saveCount = canvas.save();
+        canvas.scale(scale, scale, cx, cy);
+        rect.set(cx - halfWidth, cy - radius, cx + halfWidth, cy + radius);
+        canvas.drawRoundRect(rect, radius, radius, paint);
+
+        textPaint.setAlpha(paint.getAlpha());
+        canvas.drawText(label.text, cx - label.width / 2, cy + layouts.baseline, textPaint);
+        canvas.restoreToCount(saveCount);
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return null == label ? super.getIntrinsicHeight() : countSize;
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return null == label ? super.getIntrinsicWidth() : countSize;
+    }
+
+    private static TextLayouts getLayouts(final Typeface typeface, final float textSize, final int maxCount) {
+        final String key = System.identityHashCode(typeface) + ":" + textSize + ":" + maxCount;
+        TextLayouts layouts = LAYOUTS.get(key);
+        if (null == layouts || layouts.typeface != typeface) {
+            layouts = new TextLayouts(typeface, textSize, maxCount);
+            LAYOUTS.put(key, layouts);
+        }
+        return layouts;
+    }
+
+    /**
+     * Count text, with its measured width
+     */
+    static final class TextLayout {
+        final String text;
+        final float width;
+
+        TextLayout(final String text, final float width) {
+            this.text = text;
+            this.width = width;
+        }
+    }
+
+    /**
+     * Count labels of a typeface, text size and cap, laid out on first use
+     */
+    static final class TextLayouts {
+        final Typeface typeface;
+        final float textSize;
+        final int maxCount;
+
+        /**
+         * Offset of the text baseline from the badge vertical center
+         */
+        final float baseline;
+
+        private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.SUBPIXEL_TEXT_FLAG);
+        private final SparseArray<TextLayout> labels = new SparseArray<>();
+        private TextLayout overflow;
+
+        TextLayouts(final Typeface typeface, final float textSize, final int maxCount) {
+            this.typeface = typeface;
+            this.textSize = textSize;
+            this.maxCount = maxCount;
+
+            paint.setTypeface(typeface);
+            paint.setTextSize(textSize);
+            final Paint.FontMetrics metrics = paint.getFontMetrics();
+            baseline = -(metrics.ascent + metrics.descent) / 2;
+        }
+
+        TextLayout get(final int count) {
+            if (count > maxCount) {
+                if (null == overflow) {
+                    final String text = maxCount + "+";
+                    overflow = new TextLayout(text, paint.measureText(text));
+                }
+                return overflow;
+            }
+
+            TextLayout layout = labels.get(count);
+            if (null == layout) {
+                final String text = String.valueOf(count);
+                layout = new TextLayout(text, paint.measureText(text));
+                labels.put(count, layout);
+            }
+            return layout;
+        }
+    }
+}
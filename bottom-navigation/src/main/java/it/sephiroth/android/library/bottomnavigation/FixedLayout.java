@@ -30,9 +30,49 @@ public class FixedLayout extends ViewGroup implements ItemsLayoutContainer {
     OnItemClickListener listener;
     private int itemFinalWidth;
     private MenuParser.Menu menu;
+    private ItemsDiff pendingDiff;
+
+    private final OnTouchListener itemTouchListener = new OnTouchListener() {
+        @Override
+        @SuppressLint ("ClickableViewAccessibility")
+        public boolean onTouch(final View v, final MotionEvent event) {
+            final int action = event.getActionMasked();
+            if (action == MotionEvent.ACTION_DOWN) {
+                if (null != listener) {
+                    listener.onItemPressed(FixedLayout.this, v, true);
+                }
+            } else if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+                if (null != listener) {
+                    listener.onItemPressed(FixedLayout.this, v, false);
+                }
+            }
+            return false;
+        }
+    };
+
+    private final OnClickListener itemClickListener = new OnClickListener() {
+        @Override
+        public void onClick(final View v) {
+            if (null != listener) {
+                listener.onItemClick(FixedLayout.this, v, indexOfChild(v), true);
+            }
+        }
+    };
+
+    private final OnLongClickListener itemLongClickListener = new OnLongClickListener() {
+        @Override
+        public boolean onLongClick(final View v) {
+            final BottomNavigationItem item = ((BottomNavigationItemViewAbstract) v).getItem();
+            Toast.makeText(getContext(), item.getTitle(), Toast.LENGTH_SHORT).show();
+            return true;
+        }
+    };
+
+    private final ItemViewIndex itemViews = new ItemViewIndex();
 
     public FixedLayout(final Context context) {
         super(context);
+        setOnHierarchyChangeListener(itemViews);
         totalChildrenSize = 0;
         selectedIndex = 0;
 
@@ -48,6 +88,7 @@ public class FixedLayout extends ViewGroup implements ItemsLayoutContainer {
         itemFinalWidth = 0;
         selectedIndex = 0;
         menu = null;
+        pendingDiff = null;
     }
 
     @Override
@@ -56,6 +97,8 @@ public class FixedLayout extends ViewGroup implements ItemsLayoutContainer {
             return;
         }
 
+        MiscUtils.beginSection(MiscUtils.TRACE_LAYOUT);
+
         if (totalChildrenSize == 0) {
             totalChildrenSize = itemFinalWidth * (getChildCount() - 1) + itemFinalWidth;
         }
@@ -69,6 +112,12 @@ public class FixedLayout extends ViewGroup implements ItemsLayoutContainer {
             setChildFrame(child, left, 0, params.width, params.height);
             left += child.getWidth();
         }
+
+        if (null != pendingDiff) {
+            pendingDiff.animateChanges(this);
+            pendingDiff = null;
+        }
+        MiscUtils.endSection();
     }
 
     @Override
@@ -88,7 +137,7 @@ public class FixedLayout extends ViewGroup implements ItemsLayoutContainer {
 
     @Override
     public void setSelectedIndex(final int index, final boolean animate) {
-        MiscUtils.log(TAG, Log.INFO, "setSelectedIndex: " + index);
+        MiscUtils.log(TAG, Log.INFO, "setSelectedIndex: %d", index);
 
         if (selectedIndex == index) {
             return;
@@ -112,6 +161,14 @@ public class FixedLayout extends ViewGroup implements ItemsLayoutContainer {
         }
     }
 
+    @Override
+    public void invalidateBadge(final int itemId) {
+        final BottomNavigationItemViewAbstract view = itemViews.get(itemId);
+        if (null != view) {
+            view.invalidateBadge();
+        }
+    }
+
     @Override
     public void setItemEnabled(final int index, final boolean enabled) {
         log(TAG, INFO, "setItemEnabled(%d, %b)", index, enabled);
@@ -130,7 +187,7 @@ public class FixedLayout extends ViewGroup implements ItemsLayoutContainer {
 
     @Override
     public void populate(@NonNull final MenuParser.Menu menu) {
-        MiscUtils.log(TAG, Log.INFO, "populate: " + menu);
+        MiscUtils.log(TAG, Log.INFO, "populate: %s", menu);
 
         if (hasFrame) {
             populateInternal(menu);
@@ -144,66 +201,83 @@ public class FixedLayout extends ViewGroup implements ItemsLayoutContainer {
         this.listener = listener;
     }
 
-    private void populateInternal(@NonNull final MenuParser.Menu menu) {
-        MiscUtils.log(TAG, Log.DEBUG, "populateInternal");
+    @Override
+    public void update(@NonNull final MenuParser.Menu menu, final int selectedIndex) {
+        log(TAG, INFO, "update: %s", menu);
+
+        if (!hasFrame || getChildCount() == 0) {
+            removeAll();
+            this.selectedIndex = selectedIndex;
+            populate(menu);
+            return;
+        }
 
         final BottomNavigation parent = (BottomNavigation) getParent();
-        final float density = getResources().getDisplayMetrics().density;
-        final int screenWidth = parent.getWidth();
+        final int proposedWidth =
+            computeItemWidth(parent.getWidth(), menu.getItemsCount(), minActiveItemWidth, maxActiveItemWidth);
+        final ItemsDiff diff = new ItemsDiff(this, false, menu.getItemAnimationDuration());
 
-        int proposedWidth = Math.min(Math.max(screenWidth / menu.getItemsCount(), minActiveItemWidth), maxActiveItemWidth);
+        removeAllViewsInLayout();
+        this.itemFinalWidth = proposedWidth;
+        this.totalChildrenSize = 0;
+        this.selectedIndex = selectedIndex;
 
-        if (proposedWidth * menu.getItemsCount() > screenWidth) {
-            proposedWidth = screenWidth / menu.getItemsCount();
+        for (int i = 0; i < menu.getItemsCount(); i++) {
+            final BottomNavigationItem item = menu.getItemAt(i);
+            BottomNavigationItemViewAbstract view = diff.obtain(item);
+
+            if (null == view) {
+                view = newItemView(parent, item, i == selectedIndex, menu);
+                diff.onViewAdded(view);
+            }
+
+            view.setLayoutParams(new LinearLayout.LayoutParams(proposedWidth, getHeight()));
+            view.setExpanded(i == selectedIndex, 0, false);
+            addView(view);
         }
 
+        diff.removeUnused(this);
+        pendingDiff = diff;
+        requestLayout();
+    }
+
+    /**
+     * Returns the width of the items for the available space
+     */
+    static int computeItemWidth(final int screenWidth, final int itemsCount, final int minItemWidth, final int maxItemWidth) {
+        return ItemsWidth.computeFixed(screenWidth, itemsCount, minItemWidth, maxItemWidth);
+    }
+
+    private BottomNavigationItemViewAbstract newItemView(
+        final BottomNavigation parent, final BottomNavigationItem item, final boolean expanded, final MenuParser.Menu menu) {
+        final BottomNavigationFixedItemView view = new BottomNavigationFixedItemView(parent, expanded, menu);
+        view.setItem(item);
+        view.setClickable(true);
+        view.setTypeface(parent.typeface);
+        view.setOnTouchListener(itemTouchListener);
+        view.setOnClickListener(itemClickListener);
+        view.setOnLongClickListener(itemLongClickListener);
+        return view;
+    }
+
+    private void populateInternal(@NonNull final MenuParser.Menu menu) {
+        MiscUtils.log(TAG, Log.DEBUG, "populateInternal");
+        MiscUtils.beginSection(MiscUtils.TRACE_POPULATE);
+
+        final BottomNavigation parent = (BottomNavigation) getParent();
+        final int proposedWidth =
+            computeItemWidth(parent.getWidth(), menu.getItemsCount(), minActiveItemWidth, maxActiveItemWidth);
+
         this.itemFinalWidth = proposedWidth;
 
         for (int i = 0; i < menu.getItemsCount(); i++) {
             final BottomNavigationItem item = menu.getItemAt(i);
+            final LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(proposedWidth, getHeight());
 
-            LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(proposedWidth, getHeight());
-
-            BottomNavigationFixedItemView view =
-                new BottomNavigationFixedItemView(parent, i == selectedIndex, menu);
-            view.setItem(item);
+            final BottomNavigationItemViewAbstract view = newItemView(parent, item, i == selectedIndex, menu);
             view.setLayoutParams(params);
-            view.setClickable(true);
-            view.setTypeface(parent.typeface);
-            final int finalI = i;
-            view.setOnTouchListener(new OnTouchListener() {
-                @Override
-                @SuppressLint ("ClickableViewAccessibility")
-                public boolean onTouch(final View v, final MotionEvent event) {
-                    final int action = event.getActionMasked();
-                    if (action == MotionEvent.ACTION_DOWN) {
-                        if (null != listener) {
-                            listener.onItemPressed(FixedLayout.this, v, true);
-                        }
-                    } else if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
-                        if (null != listener) {
-                            listener.onItemPressed(FixedLayout.this, v, false);
-                        }
-                    }
-                    return false;
-                }
-            });
-            view.setOnClickListener(new OnClickListener() {
-                @Override
-                public void onClick(final View v) {
-                    if (null != listener) {
-                        listener.onItemClick(FixedLayout.this, v, finalI, true);
-                    }
-                }
-            });
-            view.setOnLongClickListener(new OnLongClickListener() {
-                @Override
-                public boolean onLongClick(final View v) {
-                    Toast.makeText(getContext(), item.getTitle(), Toast.LENGTH_SHORT).show();
-                    return true;
-                }
-            });
             addView(view);
         }
+        MiscUtils.endSection();
     }
 }
@@ -0,0 +1,922 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.os.Bundle;
+import android.support.annotation.IdRes;
+import android.support.annotation.NonNull;
+import android.support.v4.content.ContextCompat;
+import android.support.v4.graphics.drawable.DrawableCompat;
+import android.support.v4.view.ViewCompat;
+import android.support.v4.view.accessibility.AccessibilityNodeInfoCompat;
+import android.support.v4.widget.ExploreByTouchHelper;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.SparseArray;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.SoundEffectConstants;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.accessibility.AccessibilityEvent;
+import android.view.animation.DecelerateInterpolator;
+import android.widget.Button;
+import android.widget.Toast;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import it.sephiroth.android.library.bottonnavigation.R;
+
+import static android.util.Log.INFO;
+import static it.sephiroth.android.library.bottomnavigation.MiscUtils.log;
+
+/**
+ * Items layout container which draws all the items (icons, labels, badges, press ripple and background color
+ * reveal) from a single View, instead of creating one child View per item.
+ * Hit testing is done here and the items are exposed to the accessibility services as virtual views.<br />
+ * Used for the fixed and shifting modes when the BottomNavigation `bbn_flattenItems` attribute is enabled.
+ */
+@SuppressLint ("ViewConstructor")
+public class FlatLayout extends View implements ItemsLayoutContainer {
+    private static final String TAG = FlatLayout.class.getSimpleName();
+    private static final float TEXT_SCALE_ACTIVE = 1.1666666667f;
+    private static final float REVEAL_START_RADIUS = 10;
+    private static final int[] STATE_IDLE = new int[]{android.R.attr.state_enabled};
+    private static final int[] STATE_HOVERED = new int[]{android.R.attr.state_enabled, android.R.attr.state_hovered};
+    private static final int[] STATE_PRESSED =
+        new int[]{android.R.attr.state_enabled, android.R.attr.state_pressed, android.R.attr.state_hovered};
+
+    private final int itemHeight;
+
+    // fixed mode dimensions
+    private final int fixedMaxItemWidth;
+    private final int fixedMinItemWidth;
+    private final int fixedPaddingTopActive;
+    private final int fixedPaddingTopInactive;
+    private final int fixedPaddingBottom;
+    private final int fixedPaddingHorizontal;
+    private final int fixedTextSize;
+    private final int fixedIconSize;
+
+    // shifting mode dimensions
+    private final int shiftingPaddingTop;
+    private final int shiftingPaddingBottomActive;
+    private final int shiftingPaddingBottomInactive;
+    private final int shiftingTextSize;
+    private final int shiftingIconSize;
+
+    private final TextPaint textPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint revealPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final AccessibilityHelper accessibilityHelper;
+    private final FrameAnimator animator;
+    private final FrameAnimator revealAnimator;
+
+    private Entry[] entries = new Entry[0];
+    private final ArrayList<Entry> removed = new ArrayList<>();
+    private MenuParser.Menu pendingMenu;
+    private BadgeProvider badgeProvider;
+    private boolean rasterCache;
+    private OnItemClickListener listener;
+    private boolean hasFrame;
+    private int selectedIndex;
+
+    private boolean shifting;
+    private int iconSize;
+    private ColorTransition colorTransition;
+    private ColorTransition disabledColorTransition;
+    private float alphaActive;
+    private float alphaInactive;
+    private float alphaDisabled;
+
+    private Drawable ripple;
+    private boolean rippleBackgroundEnabled;
+    private int pressedIndex = -1;
+
+    private ColorDrawable revealTarget;
+    private int revealColor;
+    private float revealCenterX;
+    private float revealRadius;
+
+    private final Runnable longPressRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (pressedIndex > -1 && pressedIndex < entries.length) {
+                final BottomNavigationItem item = entries[pressedIndex].item;
+                setItemPressed(pressedIndex, false);
+                pressedIndex = -1;
+                Toast.makeText(getContext(), item.getTitle(), Toast.LENGTH_SHORT).show();
+            }
+        }
+    };
+
+    public FlatLayout(final Context context, final int itemHeight) {
+        super(context);
+        this.itemHeight = itemHeight;
+
+        final Resources res = getResources();
+        fixedMaxItemWidth = res.getDimensionPixelSize(R.dimen.bbn_fixed_maxActiveItemWidth);
+        fixedMinItemWidth = res.getDimensionPixelSize(R.dimen.bbn_fixed_minActiveItemWidth);
+        fixedPaddingTopActive = res.getDimensionPixelSize(R.dimen.bbn_fixed_item_padding_top_active);
+        fixedPaddingTopInactive = res.getDimensionPixelSize(R.dimen.bbn_fixed_item_padding_top_inactive);
+        fixedPaddingBottom = res.getDimensionPixelSize(R.dimen.bbn_fixed_item_padding_bottom);
+        fixedPaddingHorizontal = res.getDimensionPixelSize(R.dimen.bbn_fixed_item_padding_horizontal);
+        fixedTextSize = res.getDimensionPixelSize(R.dimen.bbn_fixed_text_size_inactive);
+        fixedIconSize = res.getDimensionPixelSize(R.dimen.bbn_fixed_item_icon_size);
+
+        shiftingPaddingTop = res.getDimensionPixelSize(R.dimen.bbn_shifting_item_padding_top);
+        shiftingPaddingBottomActive = res.getDimensionPixelSize(R.dimen.bbn_shifting_item_padding_bottom_active);
+        shiftingPaddingBottomInactive = res.getDimensionPixelSize(R.dimen.bbn_shifting_item_padding_bottom_inactive);
+        shiftingTextSize = res.getDimensionPixelSize(R.dimen.bbn_shifting_text_size);
+        shiftingIconSize = res.getDimensionPixelSize(R.dimen.bbn_shifting_item_icon_size);
+
+        textPaint.setHinting(Paint.HINTING_ON);
+        textPaint.setLinearText(true);
+        textPaint.setSubpixelText(true);
+
+        animator = new FrameAnimator(this, new DecelerateInterpolator(), new FrameAnimator.UpdateListener() {
+            @Override
+            public void onAnimationUpdate(final float fraction) {
+                applyTransition(fraction);
+            }
+        });
+
+        revealAnimator = new FrameAnimator(this, new DecelerateInterpolator(), new FrameAnimator.UpdateListener() {
+            @Override
+            public void onAnimationUpdate(final float fraction) {
+                final float finalRadius = revealCenterX > getWidth() / 2 ? revealCenterX : getWidth() - revealCenterX;
+                revealRadius = REVEAL_START_RADIUS + (finalRadius - REVEAL_START_RADIUS) * fraction;
+                ViewCompat.postInvalidateOnAnimation(FlatLayout.this);
+            }
+        });
+        revealAnimator.setEndAction(new Runnable() {
+            @Override
+            public void run() {
+                if (null != revealTarget) {
+                    revealTarget.setColor(revealColor);
+                    revealTarget = null;
+                    invalidate();
+                }
+            }
+        });
+
+        if (Build.VERSION.SDK_INT >= 21) {
+            ripple = ContextCompat.getDrawable(context, R.drawable.bbn_ripple_selector).mutate();
+            ripple.setCallback(this);
+        }
+
+        accessibilityHelper = new AccessibilityHelper();
+        ViewCompat.setAccessibilityDelegate(this, accessibilityHelper);
+        setFocusable(true);
+    }
+
+    @Override
+    public void removeAll() {
+        animator.cancel();
+        for (Entry entry : entries) {
+            entry.release();
+        }
+        entries = new Entry[0];
+        clearRemoved();
+        selectedIndex = 0;
+        pendingMenu = null;
+        cancelPress();
+        accessibilityHelper.invalidateRoot();
+        invalidate();
+    }
+
+    @Override
+    protected void onSizeChanged(final int w, final int h, final int oldw, final int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        hasFrame = true;
+
+        if (null != pendingMenu) {
+            populateInternal(pendingMenu);
+            pendingMenu = null;
+        } else if (entries.length > 0) {
+            computeTargets();
+            applyTransition(1);
+        }
+    }
+
+    @Override
+    public void populate(@NonNull final MenuParser.Menu menu) {
+        log(TAG, INFO, "populate: %s", menu);
+
+        if (hasFrame) {
+            populateInternal(menu);
+        } else {
+            this.pendingMenu = menu;
+        }
+    }
+
+    @Override
+    public void update(@NonNull final MenuParser.Menu menu, final int selectedIndex) {
+        log(TAG, INFO, "update: %s", menu);
+
+        if (!hasFrame || entries.length == 0) {
+            removeAll();
+            this.selectedIndex = selectedIndex;
+            populate(menu);
+            return;
+        }
+
+        // item states are kept by id, so that the kept items move from their current position
+        final SparseArray<Entry> current = new SparseArray<>(entries.length);
+        for (Entry entry : entries) {
+            current.put(entry.item.getId(), entry);
+        }
+
+        final Entry[] result = new Entry[menu.getItemsCount()];
+        final ArrayList<Entry> added = new ArrayList<>();
+        for (int i = 0; i < result.length; i++) {
+            final BottomNavigationItem item = menu.getItemAt(i);
+            Entry entry = current.get(item.getId());
+
+            if (null != entry) {
+                current.remove(item.getId());
+                entry.bind(item);
+            } else {
+                entry = new Entry(item);
+                entry.alpha = 0;
+                added.add(entry);
+            }
+            result[i] = entry;
+        }
+
+        clearRemoved();
+        for (int i = 0; i < current.size(); i++) {
+            removed.add(current.valueAt(i));
+        }
+
+        bindMenu(menu);
+        this.entries = result;
+        this.selectedIndex = selectedIndex;
+        loadResources();
+
+        for (Entry entry : added) {
+            // new items fade in at their final position
+            entry.left = entry.toLeft;
+            entry.width = entry.toWidth;
+            entry.expanded = entry.toExpanded;
+        }
+
+        startTransition(true);
+        accessibilityHelper.invalidateRoot();
+    }
+
+    private void populateInternal(@NonNull final MenuParser.Menu menu) {
+        log(TAG, INFO, "populateInternal");
+        MiscUtils.beginSection(MiscUtils.TRACE_POPULATE);
+
+        bindMenu(menu);
+        for (Entry entry : entries) {
+            entry.release();
+        }
+        entries = new Entry[menu.getItemsCount()];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = new Entry(menu.getItemAt(i));
+        }
+        loadResources();
+        applyTransition(1);
+        accessibilityHelper.invalidateRoot();
+        MiscUtils.endSection();
+    }
+
+    /**
+     * Drops the entries of the removed items, detaching their drawables from this view
+     */
+    private void clearRemoved() {
+        for (Entry entry : removed) {
+            entry.release();
+        }
+        removed.clear();
+    }
+
+    private void bindMenu(@NonNull final MenuParser.Menu menu) {
+        this.shifting = menu.isShifting();
+        this.iconSize = shifting ? shiftingIconSize : fixedIconSize;
+        this.colorTransition = menu.getItemColorTransition();
+        this.disabledColorTransition = menu.getDisabledColorTransition();
+        this.alphaInactive = Color.alpha(menu.getColorInactive()) / BottomNavigationItemViewAbstract.ALPHA_MAX;
+        this.alphaDisabled = Color.alpha(menu.getColorDisabled()) / BottomNavigationItemViewAbstract.ALPHA_MAX;
+        this.alphaActive = Math.max(Color.alpha(menu.getColorActive()) / BottomNavigationItemViewAbstract.ALPHA_MAX, alphaInactive);
+        this.rippleBackgroundEnabled = !menu.getItemAt(0).hasColor();
+        this.animator.setDuration(shifting ? menu.getItemAnimationDuration() * 2 : menu.getItemAnimationDuration());
+
+        if (null != ripple) {
+            MiscUtils.setDrawableColor(ripple, menu.getRippleColor());
+        }
+
+        final BottomNavigation parent = (BottomNavigation) getParent();
+        badgeProvider = parent.getBadgeProvider();
+        rasterCache = parent.isRasterCacheEnabled();
+        setTypeface(parent.typeface);
+        textPaint.setTextSize(shifting ? shiftingTextSize : fixedTextSize);
+
+        // the labels are ellipsized again with the new text paint
+        for (Entry entry : entries) {
+            entry.label = null;
+        }
+    }
+
+    /**
+     * Loads the icons and the badges and computes the items final position
+     */
+    private void loadResources() {
+        for (Entry entry : entries) {
+            if (null == entry.icon) {
+                entry.icon = rasterCache
+                    ? RasterCache.getIcon(getContext(), entry.item, iconSize)
+                    : entry.item.getIcon(getContext()).mutate();
+                entry.icon.setCallback(this);
+                entry.iconColorFilter = null;
+            }
+            updateBadge(entry);
+        }
+        computeTargets();
+    }
+
+    private void computeTargets() {
+        final int count = entries.length;
+        if (count == 0) {
+            return;
+        }
+
+        final int width = getWidth();
+        final int minSize;
+        final int maxSize;
+
+        if (shifting) {
+            final int[] sizes = ShiftingLayout.computeItemSizes(getResources(), width, count);
+            minSize = sizes[0];
+            maxSize = selectedIndex > -1 ? sizes[1] : sizes[0];
+        } else {
+            minSize = FixedLayout.computeItemWidth(width, count, fixedMinItemWidth, fixedMaxItemWidth);
+            maxSize = minSize;
+        }
+
+        // shifting labels are only displayed by the selected item, fixed labels are scaled up when active
+        final int labelWidth = shifting
+            ? maxSize
+            : (int) ((minSize - fixedPaddingHorizontal * 2) / TEXT_SCALE_ACTIVE);
+
+        int left = (width - (minSize * (count - 1) + maxSize)) / 2;
+        for (int i = 0; i < count; i++) {
+            final Entry entry = entries[i];
+            final boolean selected = i == selectedIndex;
+            entry.toLeft = left;
+            entry.toWidth = selected ? maxSize : minSize;
+            entry.toExpanded = selected ? 1 : 0;
+            left += entry.toWidth;
+            updateLabel(entry, labelWidth);
+        }
+    }
+
+    /**
+     * Ellipsizes the entry title to the passed width, if the title, the text paint or the width changed
+     */
+    private void updateLabel(final Entry entry, final int labelWidth) {
+        if (null == entry.label || entry.labelWidth != labelWidth) {
+            entry.labelWidth = labelWidth;
+            entry.label = TextUtils.ellipsize(entry.item.getTitle(), textPaint, Math.max(labelWidth, 0), TextUtils.TruncateAt.END)
+                .toString();
+            entry.textWidth = textPaint.measureText(entry.label);
+        }
+    }
+
+    private void startTransition(final boolean animate) {
+        animator.cancel();
+
+        for (Entry entry : entries) {
+            entry.fromLeft = entry.left;
+            entry.fromWidth = entry.width;
+            entry.fromExpanded = entry.expanded;
+            entry.fromAlpha = entry.alpha;
+        }
+
+        if (animate) {
+            animator.start();
+        } else {
+            applyTransition(1);
+        }
+    }
+
+    private void applyTransition(final float fraction) {
+        MiscUtils.beginSection(MiscUtils.TRACE_SELECTION);
+        for (Entry entry : entries) {
+            entry.left = (int) (entry.fromLeft + (entry.toLeft - entry.fromLeft) * fraction);
+            entry.width = (int) (entry.fromWidth + (entry.toWidth - entry.fromWidth) * fraction);
+            entry.expanded = entry.fromExpanded + (entry.toExpanded - entry.fromExpanded) * fraction;
+            entry.alpha = entry.fromAlpha + (1 - entry.fromAlpha) * fraction;
+        }
+
+        for (Entry entry : removed) {
+            entry.alpha = 1 - fraction;
+        }
+
+        if (fraction >= 1) {
+            clearRemoved();
+            accessibilityHelper.invalidateRoot();
+        }
+
+        ViewCompat.postInvalidateOnAnimation(this);
+        MiscUtils.endSection();
+    }
+
+    @Override
+    public void setSelectedIndex(final int index, final boolean animate) {
+        log(TAG, INFO, "setSelectedIndex: %d", index);
+
+        if (selectedIndex == index) {
+            return;
+        }
+
+        final int oldSelectedIndex = selectedIndex;
+        this.selectedIndex = index;
+
+        if (!hasFrame || entries.length == 0) {
+            return;
+        }
+
+        computeTargets();
+        startTransition(animate && oldSelectedIndex > -1 && index > -1);
+        accessibilityHelper.invalidateVirtualView(oldSelectedIndex);
+        accessibilityHelper.invalidateVirtualView(index);
+    }
+
+    @Override
+    public int getSelectedIndex() {
+        return selectedIndex;
+    }
+
+    @Override
+    public void setItemEnabled(final int index, final boolean enabled) {
+        log(TAG, INFO, "setItemEnabled(%d, %b)", index, enabled);
+        if (index > -1 && index < entries.length) {
+            if (!enabled && index == pressedIndex) {
+                cancelPress();
+            }
+            accessibilityHelper.invalidateVirtualView(index);
+            invalidate();
+        }
+    }
+
+    @Override
+    public void setOnItemClickListener(final OnItemClickListener listener) {
+        this.listener = listener;
+    }
+
+    private void setTypeface(final SoftReference<Typeface> typeface) {
+        if (null != typeface) {
+            final Typeface tf = typeface.get();
+            textPaint.setTypeface(null != tf ? tf : Typeface.DEFAULT);
+        }
+    }
+
+    /**
+     * Reloads the badge of the passed menu item id
+     */
+    @Override
+    public void invalidateBadge(@IdRes final int itemId) {
+        for (Entry entry : entries) {
+            if (entry.item.getId() == itemId) {
+                if (updateBadge(entry)) {
+                    invalidate();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Creates the entry badge drawable if the badge has been added, removed or its count changed
+     *
+     * @return true if the badge changed
+     */
+    private boolean updateBadge(final Entry entry) {
+        final int itemId = entry.item.getId();
+        final boolean visible = null != badgeProvider && badgeProvider.hasBadge(itemId);
+        final int count = visible ? badgeProvider.getCount(itemId) : BadgeStore.NO_COUNT;
+
+        if (visible == (null != entry.badge) && count == entry.badgeCount) {
+            return false;
+        }
+
+        entry.badgeCount = count;
+        entry.setBadge(visible ? badgeProvider.getBadge(itemId) : null, this);
+        return true;
+    }
+
+    /**
+     * Changes the navigation background color, optionally using a circular reveal
+     * starting from the item at the passed index
+     *
+     * @param index    the selected item index
+     * @param target   the navigation background drawable
+     * @param color    the new background color
+     * @param duration the reveal duration, 0 to change the color immediately
+     */
+    void revealBackgroundColor(final int index, @NonNull final ColorDrawable target, final int color, final long duration) {
+        // completes the running reveal, if any
+        revealAnimator.end();
+
+        if (duration <= 0 || index < 0 || index >= entries.length) {
+            target.setColor(color);
+            invalidate();
+            return;
+        }
+
+        final Entry entry = entries[index];
+        revealTarget = target;
+        revealColor = color;
+        revealCenterX = entry.toLeft + entry.toWidth / 2f;
+        revealRadius = REVEAL_START_RADIUS;
+        revealPaint.setColor(color);
+        revealAnimator.setDuration(duration);
+        revealAnimator.start();
+    }
+
+    @Override
+    protected void onDraw(final Canvas canvas) {
+        super.onDraw(canvas);
+
+        if (null != revealTarget) {
+            canvas.drawCircle(revealCenterX, itemHeight / 2f, revealRadius, revealPaint);
+        }
+
+        if (null != ripple) {
+            ripple.draw(canvas);
+        }
+
+        for (Entry entry : removed) {
+            drawEntry(canvas, entry);
+        }
+
+        for (Entry entry : entries) {
+            drawEntry(canvas, entry);
+        }
+    }
+
+    private void drawEntry(final Canvas canvas, final Entry entry) {
+        if (null == entry.icon || entry.alpha <= 0) {
+            return;
+        }
+
+        final boolean enabled = entry.item.isEnabled();
+        final float expanded = entry.expanded;
+        final ColorTransition transition = enabled ? colorTransition : disabledColorTransition;
+        final int colorIndex = transition.indexOf(expanded);
+        final int color = transition.getColor(colorIndex);
+        final ColorFilter colorFilter = transition.getColorFilter(colorIndex);
+        final int centerX = entry.left + entry.width / 2;
+        final int iconLeft = centerX - iconSize / 2;
+        final int iconTop;
+        final int iconAlpha;
+        final int textAlpha;
+
+        if (shifting) {
+            iconTop = (int) (shiftingPaddingBottomInactive + (shiftingPaddingTop - shiftingPaddingBottomInactive) * expanded);
+            iconAlpha = (int) ((enabled ? alphaInactive + (alphaActive - alphaInactive) * expanded : alphaDisabled)
+                * BottomNavigationItemViewAbstract.ALPHA_MAX);
+            textAlpha = (int) (expanded * (enabled ? alphaActive : alphaDisabled) * BottomNavigationItemViewAbstract.ALPHA_MAX);
+        } else {
+            iconTop = (int) (fixedPaddingTopActive + (fixedPaddingTopInactive - fixedPaddingTopActive) * (1 - expanded));
+            iconAlpha = Color.alpha(color);
+            textAlpha = Color.alpha(color);
+        }
+
+        if (entry.iconColorFilter != colorFilter) {
+            entry.icon.setColorFilter(colorFilter);
+            entry.iconColorFilter = colorFilter;
+        }
+        entry.icon.setAlpha((int) (iconAlpha * entry.alpha));
+        entry.icon.setBounds(iconLeft, iconTop, iconLeft + iconSize, iconTop + iconSize);
+        entry.icon.draw(canvas);
+
+        if (null != entry.badge) {
+            final int badgeRight = iconLeft + iconSize;
+            entry.badge.setBounds(badgeRight - entry.badge.getIntrinsicWidth(), iconTop, badgeRight,
+                iconTop + entry.badge.getIntrinsicHeight());
+            entry.badge.draw(canvas);
+        }
+
+        final int alpha = (int) (textAlpha * entry.alpha);
+        if (alpha <= 0) {
+            return;
+        }
+
+        if (null == entry.label) {
+            updateLabel(entry, entry.labelWidth);
+        }
+
+        textPaint.setColor(color);
+        textPaint.setAlpha(alpha);
+
+        if (shifting) {
+            canvas.drawText(entry.label, centerX - entry.textWidth / 2, itemHeight - shiftingPaddingBottomActive,
+                textPaint);
+        } else {
+            final float scale = 1 + (TEXT_SCALE_ACTIVE - 1) * expanded;
+            final int textY = itemHeight - fixedPaddingBottom;
+            final float textX = entry.left + fixedPaddingHorizontal
+                + ((entry.width - fixedPaddingHorizontal * 2) - entry.textWidth) / 2;
+
+            canvas.save();
+            canvas.scale(scale, scale, centerX, textY);
+            canvas.drawText(entry.label, textX, textY, textPaint);
+            canvas.restore();
+        }
+    }
+
+    /**
+     * Returns the index of the item at the passed coordinates, -1 if none
+     */
+    int findItemAt(final float x, final float y) {
+        if (y < 0 || y >= itemHeight) {
+            return -1;
+        }
+        for (int i = 0; i < entries.length; i++) {
+            final Entry entry = entries[i];
+            if (x >= entry.left && x < entry.left + entry.width) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void getItemBounds(final int index, final Rect outRect) {
+        final Entry entry = entries[index];
+        outRect.set(entry.left, 0, entry.left + entry.width, itemHeight);
+    }
+
+    @Override
+    @SuppressLint ("ClickableViewAccessibility")
+    public boolean onTouchEvent(final MotionEvent event) {
+        final int action = event.getActionMasked();
+
+        if (action == MotionEvent.ACTION_DOWN) {
+            final int index = findItemAt(event.getX(), event.getY());
+            if (index < 0 || !entries[index].item.isEnabled()) {
+                return false;
+            }
+            pressedIndex = index;
+            setItemPressed(index, true);
+            postDelayed(longPressRunnable, ViewConfiguration.getLongPressTimeout());
+        } else if (action == MotionEvent.ACTION_MOVE) {
+            if (pressedIndex > -1 && findItemAt(event.getX(), event.getY()) != pressedIndex) {
+                cancelPress();
+            }
+        } else if (action == MotionEvent.ACTION_UP) {
+            if (pressedIndex > -1) {
+                final int index = pressedIndex;
+                cancelPress();
+                playSoundEffect(SoundEffectConstants.CLICK);
+                performItemClick(index);
+            }
+        } else if (action == MotionEvent.ACTION_CANCEL) {
+            cancelPress();
+        }
+        return true;
+    }
+
+    private void cancelPress() {
+        removeCallbacks(longPressRunnable);
+        if (pressedIndex > -1) {
+            setItemPressed(pressedIndex, false);
+            pressedIndex = -1;
+        }
+    }
+
+    private void setItemPressed(final int index, final boolean pressed) {
+        if (null != listener) {
+            listener.onItemPressed(this, this, pressed);
+        }
+
+        if (null == ripple) {
+            return;
+        }
+
+        if (pressed) {
+            final Entry entry = entries[index];
+            final int centerX = entry.left + entry.width / 2;
+            final int halfWidth = getWidth() / 2;
+            ripple.setBounds(centerX - halfWidth, 0, centerX + halfWidth, getHeight());
+            DrawableCompat.setHotspot(ripple, centerX, itemHeight / 2f);
+            ripple.setState(rippleBackgroundEnabled ? STATE_PRESSED : STATE_HOVERED);
+        } else {
+            ripple.setState(STATE_IDLE);
+        }
+        invalidate();
+    }
+
+    private void performItemClick(final int index) {
+        if (null != listener) {
+            listener.onItemClick(this, this, index, true);
+        }
+        accessibilityHelper.sendEventForVirtualView(index, AccessibilityEvent.TYPE_VIEW_CLICKED);
+    }
+
+    @Override
+    protected boolean verifyDrawable(@NonNull final Drawable who) {
+        if (who == ripple) {
+            return true;
+        }
+        for (Entry entry : entries) {
+            if (who == entry.badge || who == entry.icon) {
+                return true;
+            }
+        }
+        return super.verifyDrawable(who);
+    }
+
+    @Override
+    public void jumpDrawablesToCurrentState() {
+        super.jumpDrawablesToCurrentState();
+        if (null != ripple) {
+            ripple.jumpToCurrentState();
+        }
+    }
+
+    @Override
+    protected boolean dispatchHoverEvent(final MotionEvent event) {
+        return accessibilityHelper.dispatchHoverEvent(event) || super.dispatchHoverEvent(event);
+    }
+
+    @Override
+    public boolean dispatchKeyEvent(final KeyEvent event) {
+        return accessibilityHelper.dispatchKeyEvent(event) || super.dispatchKeyEvent(event);
+    }
+
+    @Override
+    protected void onFocusChanged(final boolean gainFocus, final int direction, final Rect previouslyFocusedRect) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+        accessibilityHelper.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        cancelPress();
+        animator.end();
+        revealAnimator.end();
+        super.onDetachedFromWindow();
+    }
+
+    /**
+     * Drawing state of a single menu item
+     */
+    private static final class Entry {
+        BottomNavigationItem item;
+        Drawable icon;
+        Drawable badge;
+        int badgeCount;
+        ColorFilter iconColorFilter;
+
+        /**
+         * Title ellipsized to {@link #labelWidth}, null when it has to be computed again
+         */
+        String label;
+        int labelWidth;
+        float textWidth;
+
+        int left;
+        int width;
+        int fromLeft;
+        int fromWidth;
+        int toLeft;
+        int toWidth;
+        float expanded;
+        float fromExpanded;
+        float toExpanded;
+        float alpha = 1;
+        float fromAlpha = 1;
+
+        Entry(final BottomNavigationItem item) {
+            this.item = item;
+        }
+
+        void bind(final BottomNavigationItem newItem) {
+            if (newItem.getIconResource() != item.getIconResource()) {
+                if (null != icon) {
+                    icon.setCallback(null);
+                }
+                icon = null;
+            }
+            if (!TextUtils.equals(newItem.getTitle(), item.getTitle())) {
+                label = null;
+            }
+            item = newItem;
+        }
+
+        /**
+         * Detaches the icon and the badge, once the entry is no longer drawn
+         */
+        void release() {
+            if (null != icon) {
+                icon.setCallback(null);
+                icon = null;
+            }
+            setBadge(null, null);
+        }
+
+        void setBadge(final Drawable drawable, final View parent) {
+            if (badge == drawable) {
+                return;
+            }
+            if (null != badge) {
+                badge.setCallback(null);
+            }
+            badge = drawable;
+
+            if (null != badge) {
+                badge.setCallback(parent);
+                if (badge instanceof BadgeDrawable && null == parent.getParent()) {
+                    ((BadgeDrawable) badge).setIsAnimating(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Exposes the items to the accessibility services as virtual views
+     */
+    private final class AccessibilityHelper extends ExploreByTouchHelper {
+        private final Rect bounds = new Rect();
+
+        AccessibilityHelper() {
+            super(FlatLayout.this);
+        }
+
+        @Override
+        protected int getVirtualViewAt(final float x, final float y) {
+            final int index = findItemAt(x, y);
+            return index > -1 ? index : INVALID_ID;
+        }
+
+        @Override
+        protected void getVisibleVirtualViews(final List<Integer> virtualViewIds) {
+            for (int i = 0; i < entries.length; i++) {
+                virtualViewIds.add(i);
+            }
+        }
+
+        @Override
+        protected void onPopulateEventForVirtualView(final int virtualViewId, final AccessibilityEvent event) {
+            if (virtualViewId < entries.length) {
+                event.setContentDescription(entries[virtualViewId].item.getTitle());
+            }
+        }
+
+        @Override
+        protected void onPopulateNodeForVirtualView(final int virtualViewId, final AccessibilityNodeInfoCompat node) {
+            if (virtualViewId >= entries.length) {
+                // stale id, the menu has changed
+                node.setContentDescription("");
+                node.setBoundsInParent(new Rect());
+                return;
+            }
+
+            final BottomNavigationItem item = entries[virtualViewId].item;
+            getItemBounds(virtualViewId, bounds);
+            node.setBoundsInParent(bounds);
+            node.setClassName(Button.class.getName());
+            node.setContentDescription(item.getTitle());
+            node.setEnabled(item.isEnabled());
+            node.setSelected(virtualViewId == selectedIndex);
+
+            if (item.isEnabled()) {
+                node.setClickable(true);
+                node.setLongClickable(true);
+                node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+                node.addAction(AccessibilityNodeInfoCompat.ACTION_LONG_CLICK);
+            }
+        }
+
+        @Override
+        protected boolean onPerformActionForVirtualView(final int virtualViewId, final int action, final Bundle arguments) {
+            if (virtualViewId >= entries.length || !entries[virtualViewId].item.isEnabled()) {
+                return false;
+            }
+
+            if (action == AccessibilityNodeInfoCompat.ACTION_CLICK) {
+                performItemClick(virtualViewId);
+                return true;
+            } else if (action == AccessibilityNodeInfoCompat.ACTION_LONG_CLICK) {
+                Toast.makeText(getContext(), entries[virtualViewId].item.getTitle(), Toast.LENGTH_SHORT).show();
+                return true;
+            }
+            return false;
+        }
+    }
+}
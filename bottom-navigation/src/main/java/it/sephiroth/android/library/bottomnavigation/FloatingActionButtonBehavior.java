@@ -9,8 +9,6 @@ import android.util.AttributeSet;
 import android.view.View;
 import android.view.ViewGroup;
 
-import java.util.List;
-
 import static android.util.Log.INFO;
 import static android.util.Log.WARN;
 import static it.sephiroth.android.library.bottomnavigation.MiscUtils.log;
@@ -24,6 +22,12 @@ public class FloatingActionButtonBehavior extends CoordinatorLayout.Behavior<Flo
     private static final String TAG = FloatingActionButtonBehavior.class.getSimpleName();
     private int navigationBarHeight = 0;
 
+    /**
+     * Last translation contributions of the snackbar and of the navigation
+     */
+    private float snackbarOffset;
+    private float navigationOffset;
+
     public FloatingActionButtonBehavior() {
         super();
     }
@@ -50,49 +54,56 @@ public class FloatingActionButtonBehavior extends CoordinatorLayout.Behavior<Flo
     @Override
     public boolean onDependentViewChanged(
         final CoordinatorLayout parent, final FloatingActionButton child, final View dependency) {
-        log(TAG, INFO, "onDependentViewChanged: " + dependency);
-
-        final List<View> list = parent.getDependencies(child);
-        int bottomMargin = ((ViewGroup.MarginLayoutParams) child.getLayoutParams()).bottomMargin;
-
-        float t = 0;
-        float t2 = 0;
-        float t3 = 0;
-        boolean result = false;
-
-        for (View dep : list) {
-            if (Snackbar.SnackbarLayout.class.isInstance(dep)) {
-                t += dep.getTranslationY() - dep.getHeight();
-                result = true;
-            } else if (BottomNavigation.class.isInstance(dep)) {
-                BottomNavigation navigation = (BottomNavigation) dep;
-                t2 = navigation.getTranslationY() - navigation.getHeight() + bottomMargin;
-                t += t2;
-                result = true;
-
-                if (navigationBarHeight > 0) {
-                    if (!navigation.isExpanded()) {
-                        child.hide();
-                    } else {
-                        child.show();
-                    }
+        log(TAG, INFO, "onDependentViewChanged: %s", dependency);
+
+        // only the changed dependency is read, the other one keeps its last value
+        if (Snackbar.SnackbarLayout.class.isInstance(dependency)) {
+            snackbarOffset = dependency.getTranslationY() - dependency.getHeight();
+        } else if (BottomNavigation.class.isInstance(dependency)) {
+            final BottomNavigation navigation = (BottomNavigation) dependency;
+            final int bottomMargin = ((ViewGroup.MarginLayoutParams) child.getLayoutParams()).bottomMargin;
+            navigationOffset = navigation.getTranslationY() - navigation.getHeight() + bottomMargin;
+
+            if (navigationBarHeight > 0) {
+                if (!navigation.isExpanded()) {
+                    child.hide();
+                } else {
+                    child.show();
                 }
             }
+        } else {
+            return false;
         }
 
-        if (navigationBarHeight > 0 && t2 < 0) {
-            t = Math.min(t2, t + navigationBarHeight);
-        }
-
-        child.setTranslationY(t);
-        return result;
+        updateTranslation(child);
+        return true;
     }
 
     @Override
     public void onDependentViewRemoved(
         final CoordinatorLayout parent, final FloatingActionButton child, final View dependency) {
         super.onDependentViewRemoved(parent, child, dependency);
-        log(TAG, WARN, "onDependentViewRemoved: " + dependency);
+        log(TAG, WARN, "onDependentViewRemoved: %s", dependency);
+
+        if (Snackbar.SnackbarLayout.class.isInstance(dependency)) {
+            snackbarOffset = 0;
+            updateTranslation(child);
+        } else if (BottomNavigation.class.isInstance(dependency)) {
+            navigationOffset = 0;
+            updateTranslation(child);
+        }
+    }
+
+    private void updateTranslation(final FloatingActionButton child) {
+        float t = snackbarOffset + navigationOffset;
+
+        if (navigationBarHeight > 0 && navigationOffset < 0) {
+            t = Math.min(navigationOffset, t + navigationBarHeight);
+        }
+
+        if (child.getTranslationY() != t) {
+            child.setTranslationY(t);
+        }
     }
 
     public void setNavigationBarHeight(final int height) {
@@ -0,0 +1,126 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+import android.view.View;
+import android.view.animation.Interpolator;
+
+/**
+ * Minimal 0 to 1 animator stepped by the {@link AnimationClock}, used in place of the framework ValueAnimator
+ * so that all the library animations share the same (replaceable) time source.<br />
+ * Like ValueAnimator, {@link #start()} applies the first frame immediately and {@link #end()} jumps to the
+ * last frame. {@link #cancel()} stops the animation without running the end action.<br />
+ * The duration is scaled by the system animator duration scale, as returned by {@link AnimationClock#getDurationScale()}.
+ */
+final class FrameAnimator implements Runnable {
+    private final View view;
+    private final Interpolator interpolator;
+    private final UpdateListener listener;
+    private Runnable endAction;
+    private AnimationClock clock;
+    private long duration;
+    private long scaledDuration;
+    private long startTime;
+    private float fraction;
+    private boolean running;
+
+    /**
+     * @param view         the view whose frames step the animation
+     * @param interpolator the interpolator, or null for a linear animation
+     * @param listener     invoked on every frame with the interpolated fraction
+     */
+    FrameAnimator(final View view, final Interpolator interpolator, final UpdateListener listener) {
+        this.view = view;
+        this.interpolator = interpolator;
+        this.listener = listener;
+    }
+
+    void setDuration(final long value) {
+        duration = value;
+    }
+
+    /**
+     * Action invoked when the animation reaches its end, or it's ended by {@link #end()}
+     */
+    void setEndAction(final Runnable action) {
+        endAction = action;
+    }
+
+    void start() {
+        cancel();
+        clock = AnimationClock.get();
+        startTime = clock.uptimeMillis();
+        running = true;
+        scaledDuration = (long) (duration * clock.getDurationScale());
+
+        if (scaledDuration <= 0) {
+            end();
+            return;
+        }
+
+        update(0);
+        clock.postFrameCallback(view, this);
+    }
+
+    /**
+     * Stops the animation at its current fraction
+     */
+    void cancel() {
+        if (running) {
+            running = false;
+            clock.removeFrameCallback(view, this);
+        }
+    }
+
+    /**
+     * Jumps to the end of the running animation
+     */
+    void end() {
+        if (running) {
+            running = false;
+            clock.removeFrameCallback(view, this);
+            finish();
+        }
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Current interpolated fraction
+     */
+    float getAnimatedFraction() {
+        return fraction;
+    }
+
+    @Override
+    public void run() {
+        if (!running) {
+            return;
+        }
+
+        final float elapsed = (float) (clock.uptimeMillis() - startTime) / scaledDuration;
+        if (elapsed >= 1) {
+            running = false;
+            finish();
+        } else {
+            update(elapsed);
+            clock.postFrameCallback(view, this);
+        }
+    }
+
+    private void finish() {
+        update(1);
+        if (null != endAction) {
+            endAction.run();
+        }
+    }
+
+    private void update(final float elapsed) {
+        fraction = null != interpolator ? interpolator.getInterpolation(elapsed) : elapsed;
+        listener.onAnimationUpdate(fraction);
+    }
+
+    interface UpdateListener {
+        void onAnimationUpdate(float fraction);
+    }
+}
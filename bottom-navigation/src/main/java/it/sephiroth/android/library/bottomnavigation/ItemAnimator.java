@@ -0,0 +1,144 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+import android.support.v4.view.ViewCompat;
+import android.util.Property;
+import android.view.View;
+import android.view.animation.Interpolator;
+
+import java.util.ArrayList;
+
+/**
+ * Reusable animation engine used by the item views.<br />
+ * The animated properties are registered once and a single {@link FrameAnimator} is reused for every
+ * status change, so after the first run starting an animation does not allocate. Values are interpolated as
+ * primitive floats and written through typed {@link FloatProperty} objects, without reflection.<br />
+ * The target view is invalidated once per frame.<br />
+ * Starting a new animation while another one is running retargets it: the new animation starts from
+ * the current (partially animated) values instead of being stacked on top of the previous one.
+ *
+ * @param <T> the animated view type
+ */
+final class ItemAnimator<T extends View> implements FrameAnimator.UpdateListener {
+    private final T target;
+    private final ArrayList<FloatProperty<T>> properties = new ArrayList<>();
+    private float[] startValues = new float[0];
+    private float[] endValues = new float[0];
+    private FrameAnimator animator;
+    private final Interpolator interpolator;
+
+    ItemAnimator(final T target, final Interpolator interpolator) {
+        this.target = target;
+        this.interpolator = interpolator;
+    }
+
+    /**
+     * Registers a property animated by this instance
+     */
+    ItemAnimator<T> add(final FloatProperty<T> property) {
+        properties.add(property);
+        startValues = new float[properties.size()];
+        endValues = new float[properties.size()];
+        return this;
+    }
+
+    /**
+     * Sets the end value of a registered property for the next {@link #start(long)}.
+     * Properties without a new end value keep their current value.
+     */
+    ItemAnimator<T> setValue(final FloatProperty<T> property, final float value) {
+        final int index = properties.indexOf(property);
+        if (index < 0) {
+            throw new IllegalArgumentException("property not registered: " + property.getName());
+        }
+        endValues[index] = value;
+        return this;
+    }
+
+    /**
+     * Captures the current values of all the registered properties as the starting values.
+     * Called before setting the new end values.
+     */
+    ItemAnimator<T> prepare() {
+        if (null != animator) {
+            animator.cancel();
+        }
+
+        for (int i = 0; i < properties.size(); i++) {
+            startValues[i] = properties.get(i).getValue(target);
+            endValues[i] = startValues[i];
+        }
+        return this;
+    }
+
+    /**
+     * Animates the registered properties to their end values
+     *
+     * @param duration animation duration. If 0 the end values are immediately applied
+     */
+    void start(final long duration) {
+        if (duration <= 0) {
+            apply(1);
+            return;
+        }
+
+        if (null == animator) {
+            animator = new FrameAnimator(target, interpolator, this);
+        }
+
+        animator.setDuration(duration);
+        animator.start();
+    }
+
+    /**
+     * Stops the running animation, if any, leaving the properties at their current values
+     */
+    void cancel() {
+        if (null != animator) {
+            animator.cancel();
+        }
+    }
+
+    boolean isRunning() {
+        return null != animator && animator.isRunning();
+    }
+
+    @Override
+    public void onAnimationUpdate(final float fraction) {
+        apply(fraction);
+    }
+
+    private void apply(final float fraction) {
+        MiscUtils.beginSection(MiscUtils.TRACE_SELECTION);
+        for (int i = 0; i < properties.size(); i++) {
+            properties.get(i).setValue(target, startValues[i] + (endValues[i] - startValues[i]) * fraction);
+        }
+
+        ViewCompat.postInvalidateOnAnimation(target);
+        MiscUtils.endSection();
+    }
+
+    /**
+     * Typed float property, its values are read and written as primitive floats.
+     * The boxed {@link Property} accessors are only there for compatibility with the framework animators.
+     */
+    abstract static class FloatProperty<T> extends Property<T, Float> {
+
+        FloatProperty(final String name) {
+            super(Float.class, name);
+        }
+
+        abstract void setValue(T object, float value);
+
+        abstract float getValue(T object);
+
+        @Override
+        public final void set(final T object, final Float value) {
+            setValue(object, value);
+        }
+
+        @Override
+        public final Float get(final T object) {
+            return getValue(object);
+        }
+    }
+}
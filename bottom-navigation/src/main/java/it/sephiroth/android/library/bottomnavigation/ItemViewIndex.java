@@ -0,0 +1,34 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+import android.util.SparseArray;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Item id to item view index of a layout container, kept up to date through the container hierarchy
+ * changes, so that an item view can be found without walking the view tree.
+ */
+final class ItemViewIndex implements ViewGroup.OnHierarchyChangeListener {
+    private final SparseArray<BottomNavigationItemViewAbstract> views = new SparseArray<>();
+
+    /**
+     * Returns the item view of the passed menu item id, or null
+     */
+    BottomNavigationItemViewAbstract get(final int itemId) {
+        return views.get(itemId);
+    }
+
+    @Override
+    public void onChildViewAdded(final View parent, final View child) {
+        if (child instanceof BottomNavigationItemViewAbstract) {
+            views.put(child.getId(), (BottomNavigationItemViewAbstract) child);
+        }
+    }
+
+    @Override
+    public void onChildViewRemoved(final View parent, final View child) {
+        if (views.get(child.getId()) == child) {
+            views.remove(child.getId());
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewGroupOverlay;
+
+import java.util.ArrayList;
+
+/**
+ * Used by the items layout containers to update the current item views to a new menu.
+ * The views of the items present in both menus (matched by id) are reused, the new items views are faded in,
+ * the removed ones faded out and the moved ones translated from their previous position.
+ */
+final class ItemsDiff {
+    private final SparseArray<BottomNavigationItemViewAbstract> views = new SparseArray<>();
+    private final SparseIntArray positions = new SparseIntArray();
+    private final ArrayList<View> added = new ArrayList<>();
+    private final boolean vertical;
+    private final long duration;
+
+    /**
+     * @param parent   the layout container, before the update
+     * @param vertical true if the items are laid out vertically (tablet mode)
+     * @param duration insert/remove/move animations duration
+     */
+    ItemsDiff(final ViewGroup parent, final boolean vertical, final long duration) {
+        this.vertical = vertical;
+        this.duration = duration;
+
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            final BottomNavigationItemViewAbstract child = (BottomNavigationItemViewAbstract) parent.getChildAt(i);
+            views.put(child.getId(), child);
+            positions.put(child.getId(), vertical ? child.getTop() : child.getLeft());
+        }
+    }
+
+    /**
+     * Returns the existing view for the passed item, bound to the new item.
+     *
+     * @return the reused view, or null if the item is not present in the previous menu
+     */
+    BottomNavigationItemViewAbstract obtain(final BottomNavigationItem item) {
+        final BottomNavigationItemViewAbstract view = views.get(item.getId());
+        if (null != view) {
+            views.remove(item.getId());
+            view.setItem(item);
+        }
+        return view;
+    }
+
+    /**
+     * A new view has been created for an item not present in the previous menu
+     */
+    void onViewAdded(final View view) {
+        view.setAlpha(0);
+        added.add(view);
+    }
+
+    /**
+     * Fades out the views of the removed items. To be called once all the
+     * items of the new menu have been added to the parent.
+     */
+    void removeUnused(final ViewGroup parent) {
+        if (Build.VERSION.SDK_INT >= 18) {
+            for (int i = 0; i < views.size(); i++) {
+                fadeOut(parent, views.valueAt(i));
+            }
+        }
+        views.clear();
+    }
+
+    @TargetApi (18)
+    private void fadeOut(final ViewGroup parent, final View view) {
+        // the view keeps its last bounds and it's drawn in the overlay until the animation ends
+        final ViewGroupOverlay overlay = parent.getOverlay();
+        overlay.add(view);
+        view.animate().alpha(0).setDuration(duration).withEndAction(new Runnable() {
+            @Override
+            public void run() {
+                overlay.remove(view);
+            }
+        });
+    }
+
+    /**
+     * Animates the added and the moved views. To be called after the parent layout pass.
+     */
+    void animateChanges(final ViewGroup parent) {
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            final View child = parent.getChildAt(i);
+
+            if (added.contains(child)) {
+                child.animate().alpha(1).setDuration(duration);
+                continue;
+            }
+
+            final int oldPosition = positions.get(child.getId(), Integer.MIN_VALUE);
+            if (oldPosition == Integer.MIN_VALUE) {
+                continue;
+            }
+
+            final int delta = oldPosition - (vertical ? child.getTop() : child.getLeft());
+            if (delta != 0) {
+                if (vertical) {
+                    child.setTranslationY(delta);
+                    child.animate().translationY(0).setDuration(duration);
+                } else {
+                    child.setTranslationX(delta);
+                    child.animate().translationX(0).setDuration(duration);
+                }
+            }
+        }
+        added.clear();
+    }
+}
@@ -21,6 +21,15 @@ public interface ItemsLayoutContainer {
 
     void populate(@NonNull MenuParser.Menu menu);
 
+    /**
+     * Updates the current items to the passed menu, reusing the item views
+     * of the items (matched by id) present in both the current and the new menu
+     *
+     * @param menu          the new menu
+     * @param selectedIndex the selected index within the new menu
+     */
+    void update(@NonNull MenuParser.Menu menu, int selectedIndex);
+
     void setLayoutParams(ViewGroup.LayoutParams params);
 
     void setOnItemClickListener(OnItemClickListener listener);
@@ -32,4 +41,9 @@ public interface ItemsLayoutContainer {
     void requestLayout();
 
     void setItemEnabled(int index, boolean enabled);
+
+    /**
+     * Updates the badge of the passed menu item id
+     */
+    void invalidateBadge(@IdRes int itemId);
 }
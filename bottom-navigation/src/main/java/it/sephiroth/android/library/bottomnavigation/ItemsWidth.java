@@ -0,0 +1,71 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+/**
+ * Items width solvers used by the layout containers.<br />
+ * Dimensions are resolved by the callers, so this class doesn't depend on the Android framework
+ * and can be benchmarked on a plain JVM.
+ */
+final class ItemsWidth {
+    static final double ROUND_DECIMALS = 10d;
+    static final float RATIO_MIN_INCREASE = 0.05f;
+
+    /**
+     * Index of the inactive item width in the array filled by {@link #computeShifting(int, int, int, int, int, int[])}
+     */
+    static final int INACTIVE = 0;
+
+    /**
+     * Index of the active item width in the array filled by {@link #computeShifting(int, int, int, int, int, int[])}
+     */
+    static final int ACTIVE = 1;
+
+    private ItemsWidth() { }
+
+    /**
+     * Computes the width of the items in fixed mode, where all the items have the same size
+     */
+    static int computeFixed(final int screenWidth, final int itemsCount, final int minItemWidth, final int maxItemWidth) {
+        int proposedWidth = Math.min(Math.max(screenWidth / itemsCount, minItemWidth), maxItemWidth);
+
+        if (proposedWidth * itemsCount > screenWidth) {
+            proposedWidth = screenWidth / itemsCount;
+        }
+        return proposedWidth;
+    }
+
+    /**
+     * Computes the inactive and the active items width in shifting mode
+     *
+     * @param out receives the inactive (at {@link #INACTIVE}) and the active (at {@link #ACTIVE}) width
+     */
+    static void computeShifting(
+        final int screenWidth, final int itemsCount, final int maxActiveItemWidth, final int maxInactiveItemWidth,
+        final int minInactiveItemWidth, final int[] out) {
+        int itemWidthMin;
+        int itemWidthMax;
+
+        final int totalWidth = maxInactiveItemWidth * (itemsCount - 1) + maxActiveItemWidth;
+
+        if (totalWidth > screenWidth) {
+            float ratio = (float) screenWidth / totalWidth;
+            ratio = (float) ((double) Math.round(ratio * ROUND_DECIMALS) / ROUND_DECIMALS) + RATIO_MIN_INCREASE;
+
+            itemWidthMin = (int) Math.max(maxInactiveItemWidth * ratio, minInactiveItemWidth);
+            itemWidthMax = (int) (maxActiveItemWidth * ratio);
+
+            if (itemWidthMin * (itemsCount - 1) + itemWidthMax > screenWidth) {
+                itemWidthMax = screenWidth - (itemWidthMin * (itemsCount - 1));
+                if (itemWidthMax == itemWidthMin) {
+                    itemWidthMin = minInactiveItemWidth;
+                    itemWidthMax = screenWidth - (itemWidthMin * (itemsCount - 1));
+                }
+            }
+        } else {
+            itemWidthMax = maxActiveItemWidth;
+            itemWidthMin = maxInactiveItemWidth;
+        }
+
+        out[INACTIVE] = itemWidthMin;
+        out[ACTIVE] = itemWidthMax;
+    }
+}
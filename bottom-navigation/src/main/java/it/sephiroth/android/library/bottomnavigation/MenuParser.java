@@ -1,19 +1,34 @@
 package it.sephiroth.android.library.bottomnavigation;
 
+import android.app.Activity;
+import android.content.ComponentName;
 import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.pm.PackageManager;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
 import android.content.res.XmlResourceParser;
 import android.graphics.Color;
+import android.os.AsyncTask;
+import android.support.annotation.MenuRes;
+import android.support.annotation.NonNull;
 import android.support.v4.content.ContextCompat;
+import android.support.v7.view.ContextThemeWrapper;
 import android.util.AttributeSet;
+import android.util.Log;
+import android.util.LruCache;
+import android.util.TypedValue;
 import android.util.Xml;
 
 import org.xmlpull.v1.XmlPullParser;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import it.sephiroth.android.library.bottonnavigation.R;
+import proguard.annotation.Keep;
 
 /**
  * Created by alessandro crugnola on 4/3/16 at 7:59 PM.
@@ -23,7 +38,48 @@ class MenuParser {
 
     private static final String TAG = MenuParser.class.getSimpleName();
 
+    /**
+     * Max number of parsed menus kept in memory
+     */
+    private static final int MENU_CACHE_SIZE = 16;
+
+    /**
+     * Process-wide cache of the parsed menus. The cached instances are never
+     * returned directly: every lookup returns a copy bound to the caller context.
+     */
+    private static final LruCache<MenuKey, Menu> MENU_CACHE = new LruCache<>(MENU_CACHE_SIZE);
+
+    /**
+     * Theme resource declared by each Activity (in the manifest), by class name
+     */
+    private static final Map<String, Integer> ACTIVITY_THEMES = new HashMap<>();
+
+    /**
+     * Name of the menu factory class generated at build time by menu-codegen.gradle
+     */
+    private static final String GENERATED_FACTORY = MenuParser.class.getPackage().getName() + ".GeneratedMenuFactory";
+
+    private static MenuFactory generatedFactory;
+    private static boolean generatedFactoryLoaded;
+
+    /**
+     * Creates menus without parsing the xml resources. The implementation is generated
+     * at build time by menu-codegen.gradle
+     */
+    @Keep
+    interface MenuFactory {
+        /**
+         * @return the menu for the passed resource, or null if the resource is unknown to this factory
+         */
+        Menu createMenu(Context context, @MenuRes int menuRes);
+    }
+
     static class Menu {
+        private static final int DEFAULT_COLOR_ACTIVE = 1;
+        private static final int DEFAULT_COLOR_INACTIVE = 1 << 1;
+        private static final int DEFAULT_COLOR_DISABLED = 1 << 2;
+        private static final int DEFAULT_COLOR_RIPPLE = 1 << 3;
+
         private final Context context;
         private BottomNavigationItem[] items;
         private int colorActive;
@@ -36,11 +92,97 @@ class MenuParser {
         private boolean tablet;
         private int badgeColor;
         public boolean forceFixed;
+        private ColorTransition itemColorTransition;
+        private ColorTransition disabledColorTransition;
+
+        /**
+         * Colors resolved from the theme defaults, which depend on the tablet mode
+         */
+        private int defaultColors;
+
+        /**
+         * Theme attributes referenced by the menu xml and their values when the menu was parsed
+         */
+        private int[] themeAttributes;
+        private int[] themeValues;
 
         public Menu(final Context context) {
             this.context = context;
         }
 
+        /**
+         * Creates a copy of the passed menu bound to a different context.
+         * Items are copied as well, so the two menus can be modified independently.
+         */
+        Menu(final Context context, final Menu other) {
+            this.context = context;
+            this.colorActive = other.colorActive;
+            this.background = other.background;
+            this.rippleColor = other.rippleColor;
+            this.colorInactive = other.colorInactive;
+            this.colorDisabled = other.colorDisabled;
+            this.itemAnimationDuration = other.itemAnimationDuration;
+            this.shifting = other.shifting;
+            this.tablet = other.tablet;
+            this.badgeColor = other.badgeColor;
+            this.forceFixed = other.forceFixed;
+            this.defaultColors = other.defaultColors;
+            this.themeAttributes = other.themeAttributes;
+            this.themeValues = other.themeValues;
+
+            if (null != other.items) {
+                this.items = new BottomNavigationItem[other.items.length];
+                for (int i = 0; i < other.items.length; i++) {
+                    this.items[i] = new BottomNavigationItem(other.items[i]);
+                }
+            }
+        }
+
+        void setThemeAttributes(final Context context, final List<Integer> attributes) {
+            final int[] result = new int[attributes.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = attributes.get(i);
+            }
+            setThemeAttributes(context, result);
+        }
+
+        /**
+         * Records the theme attributes referenced by the menu, and their current values in the passed context
+         * theme. Used by {@link #matchesTheme(Context)}.
+         */
+        void setThemeAttributes(final Context context, final int... attributes) {
+            themeAttributes = attributes;
+            themeValues = resolveTheme(context);
+        }
+
+        /**
+         * Returns true if the theme attributes referenced by the menu xml resolve to the same values
+         * in the passed context theme
+         */
+        boolean matchesTheme(final Context context) {
+            if (null == themeAttributes || themeAttributes.length == 0) {
+                return true;
+            }
+            final int[] values = resolveTheme(context);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != themeValues[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int[] resolveTheme(final Context context) {
+            final TypedValue value = new TypedValue();
+            final int[] result = new int[themeAttributes.length];
+            for (int i = 0; i < themeAttributes.length; i++) {
+                if (context.getTheme().resolveAttribute(themeAttributes[i], value, true)) {
+                    result[i] = 31 * (31 * value.type + value.data) + value.resourceId;
+                }
+            }
+            return result;
+        }
+
         public int getItemAnimationDuration() {
             return itemAnimationDuration;
         }
@@ -74,27 +216,23 @@ class MenuParser {
                 } else {
                     colorActive = MiscUtils.getColor(context, android.R.attr.colorForeground);
                 }
+                defaultColors |= DEFAULT_COLOR_ACTIVE;
             }
             return colorActive;
         }
 
         public int getColorInactive() {
             if (0 == colorInactive) {
-                if (shifting && !tablet) {
-                    int color = getColorActive();
-                    colorInactive = Color.argb(Color.alpha(color) / 2, Color.red(color), Color.green(color), Color.blue(color));
-                } else {
-                    int color = getColorActive();
-                    colorInactive = Color.argb(Color.alpha(color) / 2, Color.red(color), Color.green(color), Color.blue(color));
-                }
+                colorInactive = ColorTable.halveAlpha(getColorActive());
+                defaultColors |= DEFAULT_COLOR_INACTIVE;
             }
             return colorInactive;
         }
 
         public int getColorDisabled() {
             if (0 == colorDisabled) {
-                int color = getColorInactive();
-                colorDisabled = Color.argb(Color.alpha(color) / 2, Color.red(color), Color.green(color), Color.blue(color));
+                colorDisabled = ColorTable.halveAlpha(getColorInactive());
+                defaultColors |= DEFAULT_COLOR_DISABLED;
             }
             return colorDisabled;
         }
@@ -106,10 +244,31 @@ class MenuParser {
                 } else {
                     rippleColor = ContextCompat.getColor(context, R.color.bbn_fixed_item_ripple_color);
                 }
+                defaultColors |= DEFAULT_COLOR_RIPPLE;
             }
             return rippleColor;
         }
 
+        /**
+         * Returns the (cached) inactive to active color transition used by the enabled items
+         */
+        ColorTransition getItemColorTransition() {
+            if (null == itemColorTransition) {
+                itemColorTransition = new ColorTransition(getColorInactive(), getColorActive());
+            }
+            return itemColorTransition;
+        }
+
+        /**
+         * Returns the (cached) color transition used by the disabled items, which don't change color
+         */
+        ColorTransition getDisabledColorTransition() {
+            if (null == disabledColorTransition) {
+                disabledColorTransition = new ColorTransition(getColorDisabled(), getColorDisabled());
+            }
+            return disabledColorTransition;
+        }
+
         public void setItems(final BottomNavigationItem[] items) {
             this.items = items;
             this.shifting = (null != items && items.length > 3 && !forceFixed);
@@ -119,6 +278,20 @@ class MenuParser {
             return shifting;
         }
 
+        /**
+         * Resolves the theme dependent colors, so that the menu can be prepared outside the main thread.
+         * Icons are not loaded here: the AppCompat drawable cache and tint manager are not thread safe,
+         * the item views resolve them in the main thread.
+         */
+        void preload() {
+            getColorActive();
+            getColorInactive();
+            getColorDisabled();
+            getRippleColor();
+            getItemColorTransition();
+            getDisabledColorTransition();
+        }
+
         public BottomNavigationItem[] getItems() {
             return items;
         }
@@ -127,6 +300,32 @@ class MenuParser {
             return items[index];
         }
 
+        /**
+         * Returns the index of the item with the passed id, -1 if not found
+         */
+        public int indexOfItem(final int itemId) {
+            for (int i = 0; i < getItemsCount(); i++) {
+                if (items[i].getId() == itemId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Returns true if the item views created for this menu can be reused for the passed one,
+         * that is they share the same layout mode, colors and animation duration.
+         */
+        boolean hasSameStyle(final Menu other) {
+            return shifting == other.shifting
+                && tablet == other.tablet
+                && itemAnimationDuration == other.itemAnimationDuration
+                && getColorActive() == other.getColorActive()
+                && getColorInactive() == other.getColorInactive()
+                && getColorDisabled() == other.getColorDisabled()
+                && getRippleColor() == other.getRippleColor();
+        }
+
         public int getItemsCount() {
             if (null != items) {
                 return items.length;
@@ -143,8 +342,30 @@ class MenuParser {
             return items[0].hasColor();
         }
 
+        /**
+         * Sets the tablet mode. Colors resolved from the theme defaults for the other mode are resolved again.
+         */
         void setTabletMode(final boolean tablet) {
+            if (this.tablet == tablet) {
+                return;
+            }
+
             this.tablet = tablet;
+            if ((defaultColors & DEFAULT_COLOR_ACTIVE) != 0) {
+                colorActive = 0;
+            }
+            if ((defaultColors & DEFAULT_COLOR_INACTIVE) != 0) {
+                colorInactive = 0;
+            }
+            if ((defaultColors & DEFAULT_COLOR_DISABLED) != 0) {
+                colorDisabled = 0;
+            }
+            if ((defaultColors & DEFAULT_COLOR_RIPPLE) != 0) {
+                rippleColor = 0;
+            }
+            defaultColors = 0;
+            itemColorTransition = null;
+            disabledColorTransition = null;
         }
 
         public boolean isTablet() {
@@ -183,10 +404,16 @@ class MenuParser {
     private MenuItem item;
     private Menu menu;
 
+    /**
+     * Theme attributes referenced by the menu xml
+     */
+    private final List<Integer> themeAttributes = new ArrayList<>();
+
     public MenuParser() { }
 
     private void readMenu(final Context context, final AttributeSet attrs) {
         menu = new Menu(context);
+        collectThemeAttributes(attrs);
         TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.BottomNavigationMenu);
 
         menu.itemAnimationDuration = a.getInt(
@@ -203,8 +430,142 @@ class MenuParser {
         a.recycle();
     }
 
+    /**
+     * Returns the menu for the passed resource id. The menu is parsed only the first time
+     * for a given resource, configuration and theme, the following calls are served from the
+     * process-wide cache.
+     *
+     * @param context the context used to resolve the menu resources
+     * @param menuRes the menu resource id
+     * @return a new menu instance, or null if the menu couldn't be parsed
+     */
+    protected static Menu inflateMenu(final Context context, @MenuRes int menuRes) {
+        if (0 == menuRes) {
+            return null;
+        }
+
+        final MenuKey key = new MenuKey(menuRes, context.getResources().getConfiguration(), getThemeKey(context));
+        final Menu cached = MENU_CACHE.get(key);
+
+        // the theme may have been changed at runtime (Activity#setTheme), which the key doesn't detect
+        if (null != cached && cached.matchesTheme(context)) {
+            return new Menu(context, cached);
+        }
+
+        Menu menu = createGeneratedMenu(context, menuRes);
+
+        if (null == menu) {
+            menu = parseMenu(context, menuRes);
+        }
+
+        if (null != menu) {
+            // the cached copy must not retain the Activity
+            MENU_CACHE.put(key.freeze(), new Menu(context.getApplicationContext(), menu));
+        }
+        return menu;
+    }
+
+    private static Menu createGeneratedMenu(final Context context, final int menuRes) {
+        final MenuFactory factory = getGeneratedFactory();
+        return null != factory ? factory.createMenu(context, menuRes) : null;
+    }
+
+    private static synchronized MenuFactory getGeneratedFactory() {
+        if (!generatedFactoryLoaded) {
+            generatedFactoryLoaded = true;
+            try {
+                generatedFactory = (MenuFactory) Class.forName(GENERATED_FACTORY).newInstance();
+            } catch (ClassNotFoundException e) {
+                // menu-codegen.gradle not applied, menus will be parsed at runtime
+                generatedFactory = null;
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to instantiate " + GENERATED_FACTORY, e);
+                generatedFactory = null;
+            }
+        }
+        return generatedFactory;
+    }
+
+    /**
+     * Used by the generated menu factory
+     */
+    static Menu newMenu(
+        final Context context, final int itemAnimationDuration, final int background, final int rippleColor,
+        final int colorInactive, final int colorDisabled, final int colorActive, final int badgeColor,
+        final boolean forceFixed) {
+        final Menu menu = new Menu(context);
+        menu.itemAnimationDuration = itemAnimationDuration;
+        menu.background = background;
+        menu.rippleColor = rippleColor;
+        menu.colorInactive = colorInactive;
+        menu.colorDisabled = colorDisabled;
+        menu.colorActive = colorActive;
+        menu.badgeColor = badgeColor;
+        menu.forceFixed = forceFixed;
+        return menu;
+    }
+
+    /**
+     * Used by the generated menu factory
+     */
+    static BottomNavigationItem newItem(
+        final int id, final int iconResource, final String title, final boolean enabled, final int color) {
+        final BottomNavigationItem item = new BottomNavigationItem(id, iconResource, title);
+        item.setEnabled(enabled);
+        item.setColor(color);
+        return item;
+    }
+
+    /**
+     * Parses the passed menu resources in a background thread, storing the results into the menu cache.
+     */
+    static void preloadMenus(@NonNull final Context context, @MenuRes final int... menuResIds) {
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (int menuResId : menuResIds) {
+                    inflateMenu(context, menuResId);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns a key which identifies the theme used by the passed context. Only the
+     * theme resources are used, runtime changes made with {@link Context#setTheme(int)} are not detected
+     * by the key: cached menus verify the theme attributes they reference, see {@link Menu#matchesTheme(Context)}.
+     */
+    static int getThemeKey(Context context) {
+        int result = 0;
+        while (context instanceof ContextWrapper) {
+            if (context instanceof ContextThemeWrapper) {
+                result = 31 * result + ((ContextThemeWrapper) context).getThemeResId();
+            } else if (context instanceof Activity) {
+                return 31 * result + getActivityTheme((Activity) context);
+            }
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+        return 31 * result + context.getApplicationInfo().theme;
+    }
+
+    private static int getActivityTheme(final Activity activity) {
+        final ComponentName component = activity.getComponentName();
+        synchronized (ACTIVITY_THEMES) {
+            Integer theme = ACTIVITY_THEMES.get(component.getClassName());
+            if (null == theme) {
+                try {
+                    theme = activity.getPackageManager().getActivityInfo(component, 0).getThemeResource();
+                } catch (PackageManager.NameNotFoundException e) {
+                    theme = activity.getApplicationInfo().theme;
+                }
+                ACTIVITY_THEMES.put(component.getClassName(), theme);
+            }
+            return theme;
+        }
+    }
+
     @SuppressWarnings ("checkstyle:cyclomaticcomplexity")
-    protected static Menu inflateMenu(final Context context, int menuRes) {
+    private static Menu parseMenu(final Context context, int menuRes) {
         List<BottomNavigationItem> list = new ArrayList<>();
 
         MenuParser menuParser = new MenuParser();
@@ -277,18 +638,78 @@ class MenuParser {
                 eventType = parser.next();
             }
         } catch (Exception e) {
+            Log.e(TAG, "Failed to parse the menu resource " + Integer.toHexString(menuRes), e);
             return null;
         }
 
         if (menuParser.hasMenu()) {
             Menu menu = menuParser.pullMenu();
             menu.setItems(list.toArray(new BottomNavigationItem[list.size()]));
+            menu.setThemeAttributes(context, menuParser.themeAttributes);
             return menu;
         }
 
         return null;
     }
 
+    /**
+     * Cache key of a parsed menu: menu resource + resources configuration + theme
+     */
+    static final class MenuKey {
+        private final int menuRes;
+        private final Configuration configuration;
+        private final int theme;
+
+        MenuKey(final int menuRes, final Configuration configuration, final int theme) {
+            this.menuRes = menuRes;
+            this.configuration = configuration;
+            this.theme = theme;
+        }
+
+        /**
+         * Returns a copy of this key which doesn't share the (mutable) Configuration instance
+         */
+        MenuKey freeze() {
+            return new MenuKey(menuRes, new Configuration(configuration), theme);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MenuKey)) {
+                return false;
+            }
+            final MenuKey other = (MenuKey) o;
+            return menuRes == other.menuRes && theme == other.theme && configuration.equals(other.configuration);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = menuRes;
+            result = 31 * result + theme;
+            result = 31 * result + configuration.hashCode();
+            return result;
+        }
+    }
+
+    /**
+     * Records the theme attributes (?attr references) used by the passed xml attributes
+     */
+    private void collectThemeAttributes(final AttributeSet attrs) {
+        for (int i = 0; i < attrs.getAttributeCount(); i++) {
+            final String value = attrs.getAttributeValue(i);
+            if (null != value && value.length() > 1 && value.charAt(0) == '?') {
+                try {
+                    themeAttributes.add(Integer.parseInt(value.substring(1)));
+                } catch (NumberFormatException e) {
+                    Log.w(TAG, "Unexpected theme attribute reference: " + value);
+                }
+            }
+        }
+    }
+
     public MenuItem pullItem() {
         MenuItem current = item;
         item = null;
@@ -313,6 +734,7 @@ class MenuParser {
      * Called when the parser is pointing to an item tag.
      */
     public void readItem(Context mContext, AttributeSet attrs) {
+        collectThemeAttributes(attrs);
         TypedArray a = mContext.obtainStyledAttributes(attrs, R.styleable.BottomNavigationMenuItem);
         item = new MenuItem();
         item.itemId = a.getResourceId(R.styleable.BottomNavigationMenuItem_android_id, 0);
@@ -15,6 +15,7 @@ import android.support.annotation.AttrRes;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v4.graphics.drawable.DrawableCompat;
+import android.support.v4.os.TraceCompat;
 import android.support.v4.view.ViewCompat;
 import android.support.v4.view.ViewPropertyAnimatorCompat;
 import android.support.v4.view.ViewPropertyAnimatorListener;
@@ -226,9 +227,123 @@ public final class MiscUtils {
         }
     }
 
-    public static void log(final String tag, final int level, String message, Object... arguments) {
+    /*
+     * Logging. One overload per arity (and primitive overloads for the hot paths), so that
+     * nothing is allocated or boxed while BottomNavigation.DEBUG is disabled. Calls mixing primitive
+     * and object arguments resolve to the Object overloads and must be guarded by BottomNavigation.DEBUG.
+     */
+
+    public static void log(final String tag, final int level, final String message) {
         if (BottomNavigation.DEBUG) {
-            Log.println(level, tag, String.format(message, arguments));
+            Log.println(level, tag, message);
+        }
+    }
+
+    public static void log(final String tag, final int level, final String format, final int arg1) {
+        if (BottomNavigation.DEBUG) {
+            Log.println(level, tag, String.format(format, arg1));
+        }
+    }
+
+    public static void log(final String tag, final int level, final String format, final int arg1, final int arg2) {
+        if (BottomNavigation.DEBUG) {
+            Log.println(level, tag, String.format(format, arg1, arg2));
+        }
+    }
+
+    public static void log(final String tag, final int level, final String format, final boolean arg1) {
+        if (BottomNavigation.DEBUG) {
+            Log.println(level, tag, String.format(format, arg1));
+        }
+    }
+
+    public static void log(final String tag, final int level, final String format, final boolean arg1, final boolean arg2) {
+        if (BottomNavigation.DEBUG) {
+            Log.println(level, tag, String.format(format, arg1, arg2));
+        }
+    }
+
+    public static void log(
+        final String tag, final int level, final String format, final boolean arg1, final boolean arg2, final boolean arg3) {
+        if (BottomNavigation.DEBUG) {
+            Log.println(level, tag, String.format(format, arg1, arg2, arg3));
+        }
+    }
+
+    public static void log(final String tag, final int level, final String format, final boolean arg1, final int arg2) {
+        if (BottomNavigation.DEBUG) {
+            Log.println(level, tag, String.format(format, arg1, arg2));
+        }
+    }
+
+    public static void log(final String tag, final int level, final String format, final int arg1, final boolean arg2) {
+        if (BottomNavigation.DEBUG) {
+            Log.println(level, tag, String.format(format, arg1, arg2));
+        }
+    }
+
+    public static void log(final String tag, final int level, final String format, final float arg1, final int arg2) {
+        if (BottomNavigation.DEBUG) {
+            Log.println(level, tag, String.format(format, arg1, arg2));
+        }
+    }
+
+    public static void log(final String tag, final int level, final String format, final Object arg1) {
+        if (BottomNavigation.DEBUG) {
+            Log.println(level, tag, String.format(format, arg1));
+        }
+    }
+
+    public static void log(final String tag, final int level, final String format, final Object arg1, final Object arg2) {
+        if (BottomNavigation.DEBUG) {
+            Log.println(level, tag, String.format(format, arg1, arg2));
+        }
+    }
+
+    public static void log(
+        final String tag, final int level, final String format, final Object arg1, final Object arg2, final Object arg3) {
+        if (BottomNavigation.DEBUG) {
+            Log.println(level, tag, String.format(format, arg1, arg2, arg3));
+        }
+    }
+
+    public static void log(
+        final String tag, final int level, final String format, final Object arg1, final Object arg2, final Object arg3,
+        final Object arg4) {
+        if (BottomNavigation.DEBUG) {
+            Log.println(level, tag, String.format(format, arg1, arg2, arg3, arg4));
+        }
+    }
+
+    /**
+     * Fallback for any other argument list. The arguments array (and the boxed primitives) are allocated
+     * even when logging is disabled: hot paths should check {@link BottomNavigation#DEBUG} first.
+     */
+    public static void log(final String tag, final int level, final String format, final Object... arguments) {
+        if (BottomNavigation.DEBUG) {
+            Log.println(level, tag, String.format(format, arguments));
+        }
+    }
+
+    static final String TRACE_POPULATE = "BottomNavigation#populate";
+    static final String TRACE_LAYOUT = "BottomNavigation#layout";
+    static final String TRACE_DRAW = "BottomNavigation#draw";
+    static final String TRACE_SELECTION = "BottomNavigation#selection";
+    static final String TRACE_OFFSET = "BottomNavigation#hideShow";
+
+    /**
+     * Begins a systrace section, only if {@link BottomNavigation#TRACE} is enabled.
+     * Must be balanced by a {@link #endSection()} call on the same thread.
+     */
+    static void beginSection(final String name) {
+        if (BottomNavigation.TRACE) {
+            TraceCompat.beginSection(name);
+        }
+    }
+
+    static void endSection() {
+        if (BottomNavigation.TRACE) {
+            TraceCompat.endSection();
         }
     }
 
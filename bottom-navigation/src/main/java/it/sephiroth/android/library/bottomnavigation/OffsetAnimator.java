@@ -0,0 +1,179 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+import android.support.v4.view.ViewCompat;
+import android.view.View;
+
+/**
+ * Spring based animator of a view vertical translation, used for the hide/show animations.<br />
+ * Changing the target value while the animation is running doesn't restart it: the current
+ * position and velocity are carried over, so direction changes are continuous.<br />
+ * The view is promoted to a hardware layer while moving and restored to its previous layer type at rest.<br />
+ * Frames are stepped by the {@link AnimationClock}, and the time is scaled by the system animator duration scale:
+ * when animations are disabled the view jumps to its target.
+ */
+final class OffsetAnimator implements Runnable {
+    /**
+     * Critically damped spring: the view never overshoots its target
+     */
+    private static final float DAMPING_RATIO = 1f;
+
+    /**
+     * Value of (natural frequency * duration) for the spring to settle within the given duration
+     */
+    private static final float SETTLE_FACTOR = 7f;
+
+    /**
+     * Maximum integration step, in seconds
+     */
+    private static final float MAX_STEP = 1f / 240;
+
+    /**
+     * Maximum elapsed time between two frames, in seconds. Longer gaps (dropped frames) don't make the view jump
+     */
+    private static final float MAX_FRAME_TIME = 1f / 15;
+
+    /**
+     * Distance (px) and velocity (px/s) under which the spring is considered at rest
+     */
+    private static final float REST_DISTANCE = 0.5f;
+    private static final float REST_VELOCITY = 10f;
+
+    private static final float MILLIS = 1000f;
+
+    private final View view;
+    private final float omega;
+    private final float stiffness;
+    private final float damping;
+
+    private AnimationClock clock;
+    private float durationScale = 1f;
+    private float target;
+    private float velocity;
+    private long lastFrameTime;
+    private boolean running;
+    private boolean promoted;
+    private int previousLayerType;
+    private OnOffsetChangedListener listener;
+
+    /**
+     * @param view     the animated view
+     * @param duration approximate time (ms) to travel to a new target starting from rest
+     */
+    OffsetAnimator(final View view, final long duration) {
+        this.omega = SETTLE_FACTOR / (Math.max(duration, 1) / MILLIS);
+        this.view = view;
+        this.stiffness = omega * omega;
+        this.damping = 2 * DAMPING_RATIO * omega;
+    }
+
+    /**
+     * Animates the view translation to the passed value, starting from the current translation and velocity
+     */
+    void animateTo(final float value) {
+        target = value;
+
+        if (!running) {
+            final AnimationClock current = AnimationClock.get();
+            durationScale = current.getDurationScale();
+            if (durationScale <= 0) {
+                velocity = 0;
+                view.setTranslationY(target);
+                if (null != listener) {
+                    listener.onOffsetChanged(view);
+                }
+                return;
+            }
+
+            // a critically damped spring starting at rest never overshoots, with an initial velocity it does
+            // only if the velocity is greater than omega * distance
+            final float limit = Math.abs(target - view.getTranslationY()) * omega;
+            velocity = Math.max(-limit, Math.min(limit, velocity));
+
+            running = true;
+            clock = current;
+            lastFrameTime = clock.uptimeMillis();
+            promote();
+            clock.postFrameCallback(view, this);
+        }
+    }
+
+    /**
+     * Listener invoked on every animation frame, after the view translation has been updated
+     */
+    void setOnOffsetChangedListener(final OnOffsetChangedListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the current velocity (px/s), for instance the one of a fling. When the animation is not running, the next
+     * {@link #animateTo(float)} starts with this velocity.
+     */
+    void setVelocity(final float value) {
+        velocity = value;
+    }
+
+    /**
+     * Stops the animation leaving the view at its current position
+     */
+    void cancel() {
+        velocity = 0;
+        if (running) {
+            running = false;
+            clock.removeFrameCallback(view, this);
+            demote();
+        }
+    }
+
+    @Override
+    public void run() {
+        if (!running) {
+            return;
+        }
+
+        final long now = clock.uptimeMillis();
+        float elapsed = Math.min((now - lastFrameTime) / MILLIS / durationScale, MAX_FRAME_TIME);
+        lastFrameTime = now;
+
+        float position = view.getTranslationY();
+        while (elapsed > 0) {
+            final float step = Math.min(elapsed, MAX_STEP);
+            // semi-implicit euler
+            velocity += (-stiffness * (position - target) - damping * velocity) * step;
+            position += velocity * step;
+            elapsed -= step;
+        }
+
+        if (Math.abs(position - target) < REST_DISTANCE && Math.abs(velocity) < REST_VELOCITY) {
+            view.setTranslationY(target);
+            velocity = 0;
+            running = false;
+            demote();
+        } else {
+            view.setTranslationY(position);
+            clock.postFrameCallback(view, this);
+        }
+
+        if (null != listener) {
+            listener.onOffsetChanged(view);
+        }
+    }
+
+    private void promote() {
+        if (!promoted && ViewCompat.getLayerType(view) != ViewCompat.LAYER_TYPE_HARDWARE) {
+            previousLayerType = ViewCompat.getLayerType(view);
+            ViewCompat.setLayerType(view, ViewCompat.LAYER_TYPE_HARDWARE, null);
+            promoted = true;
+        }
+    }
+
+    private void demote() {
+        if (promoted) {
+            ViewCompat.setLayerType(view, previousLayerType, null);
+            promoted = false;
+        }
+    }
+
+    interface OnOffsetChangedListener {
+        void onOffsetChanged(View view);
+    }
+}
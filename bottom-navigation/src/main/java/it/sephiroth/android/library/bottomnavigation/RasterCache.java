@@ -0,0 +1,115 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.NonNull;
+import android.util.LruCache;
+
+import static android.util.Log.INFO;
+import static it.sephiroth.android.library.bottomnavigation.MiscUtils.log;
+
+/**
+ * Process wide cache of the pre-rasterized item icons and labels, shared by all the BottomNavigation instances
+ * which enable it (see the <code>bbn_rasterCache</code> attribute).<br />
+ * Icons are rasterized once at their final size, so drawing them is a bitmap blit instead of a vector
+ * re-render. Labels are rasterized as alpha masks and drawn using the text paint color.<br />
+ * Entries are not keyed by color: icons are tinted by their color filter and labels by the paint, so the same
+ * bitmap is used for every color (and every frame of a color transition).
+ */
+final class RasterCache {
+    private static final String TAG = RasterCache.class.getSimpleName();
+
+    /**
+     * Maximum cache size, in bytes
+     */
+    private static final int MAX_SIZE = (int) Math.min(Runtime.getRuntime().maxMemory() / 64, 2 * 1024 * 1024);
+
+    /**
+     * Extra pixels around the label, so that glyphs overhangs are not clipped
+     */
+    static final int LABEL_PADDING = 1;
+
+    private static final LruCache<String, Bitmap> CACHE = new LruCache<String, Bitmap>(MAX_SIZE) {
+        @Override
+        protected int sizeOf(final String key, final Bitmap value) {
+            return value.getByteCount();
+        }
+    };
+
+    private static final Paint LABEL_PAINT = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    private RasterCache() { }
+
+    /**
+     * Returns a drawable for the item icon, backed by a shared bitmap of the given size.
+     * Every call returns a new drawable so color filter and alpha can be changed independently.<br />
+     * Bitmaps are keyed by the resources configuration (density, night mode, qualifiers) and by the theme,
+     * which can both change the drawable the icon resource resolves to.
+     */
+    static Drawable getIcon(@NonNull final Context context, @NonNull final BottomNavigationItem item, final int size) {
+        final String key = "icon:" + item.getIconResource() + ":" + size + ":"
+            + context.getResources().getConfiguration().hashCode() + ":" + MenuParser.getThemeKey(context);
+        Bitmap bitmap = CACHE.get(key);
+
+        if (null == bitmap) {
+            log(TAG, INFO, "rasterizing icon %d (%dpx)", item.getIconResource(), size);
+            final Drawable drawable = item.getIcon(context);
+            bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            drawable.setBounds(0, 0, size, size);
+            drawable.draw(new Canvas(bitmap));
+            CACHE.put(key, bitmap);
+        }
+
+        final BitmapDrawable result = new BitmapDrawable(context.getResources(), bitmap);
+        result.setFilterBitmap(false);
+        return result;
+    }
+
+    /**
+     * Returns the alpha mask of the label rendered with the passed paint typeface and text size.
+     * The text baseline is at {@link #getLabelBaseline(Paint, float)} from the bitmap top.
+     */
+    static Bitmap getLabel(@NonNull final String text, @NonNull final Paint paint, final float textSize) {
+        final Typeface typeface = paint.getTypeface();
+        final String key = "label:" + textSize + ":" + (null != typeface ? typeface.hashCode() : 0) + ":" + text;
+        Bitmap bitmap = CACHE.get(key);
+
+        if (null == bitmap) {
+            setupLabelPaint(paint, textSize);
+            final Paint.FontMetricsInt metrics = LABEL_PAINT.getFontMetricsInt();
+            final int width = (int) Math.ceil(LABEL_PAINT.measureText(text)) + LABEL_PADDING * 2;
+            final int height = metrics.bottom - metrics.top + LABEL_PADDING * 2;
+
+            bitmap = Bitmap.createBitmap(Math.max(width, 1), Math.max(height, 1), Bitmap.Config.ALPHA_8);
+            new Canvas(bitmap).drawText(text, LABEL_PADDING, LABEL_PADDING - metrics.top, LABEL_PAINT);
+            CACHE.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Distance of the text baseline from the top of the bitmaps returned by {@link #getLabel(String, Paint, float)}
+     */
+    static int getLabelBaseline(@NonNull final Paint paint, final float textSize) {
+        setupLabelPaint(paint, textSize);
+        return LABEL_PADDING - LABEL_PAINT.getFontMetricsInt().top;
+    }
+
+    private static void setupLabelPaint(final Paint paint, final float textSize) {
+        LABEL_PAINT.set(paint);
+        LABEL_PAINT.setTextSize(textSize);
+        LABEL_PAINT.setColor(0xff000000);
+    }
+
+    /**
+     * Removes all the cached bitmaps
+     */
+    static void clear() {
+        CACHE.evictAll();
+    }
+}
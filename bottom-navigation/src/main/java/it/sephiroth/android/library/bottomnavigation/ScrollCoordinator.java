@@ -0,0 +1,200 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.view.ViewCompat;
+import android.support.v4.widget.NestedScrollView;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.widget.AbsListView;
+
+import it.sephiroth.android.library.bottonnavigation.R;
+
+import static android.util.Log.INFO;
+import static it.sephiroth.android.library.bottomnavigation.MiscUtils.log;
+
+/**
+ * Hide on scroll for a BottomNavigation which is not a CoordinatorLayout child.<br />
+ * Attached to a RecyclerView, a NestedScrollView or an AbsListView it hides the navigation (and optionally a
+ * Toolbar) when the content is scrolled down and shows it back when the content is scrolled up.
+ * Views are only translated, so hiding and showing them never triggers a layout pass.<br />
+ * Usage:
+ * <pre>
+ *     coordinator = new ScrollCoordinator(bottomNavigation).setToolbar(toolbar);
+ *     coordinator.attach(recyclerView);
+ * </pre>
+ * Once created, {@link BottomNavigation#setExpanded(boolean, boolean)} and {@link BottomNavigation#isExpanded()} are
+ * handled by the coordinator.<br />
+ * Note that {@link AbsListView} supports a single scroll listener, so attaching to a list view replaces its
+ * current listener.
+ */
+public class ScrollCoordinator implements NestedScrollView.OnScrollChangeListener, AbsListView.OnScrollListener {
+    private static final String TAG = ScrollCoordinator.class.getSimpleName();
+
+    private final BottomNavigation navigation;
+    private final OffsetAnimator navigationAnimator;
+    private final int touchSlop;
+    private final long duration;
+
+    private View toolbar;
+    private OffsetAnimator toolbarAnimator;
+    private View target;
+    private boolean expanded = true;
+    private boolean enabled = true;
+    private int totalDy;
+
+    private int listFirstPosition = RecyclerView.NO_POSITION;
+    private int listFirstTop;
+
+    private final RecyclerView.OnScrollListener recyclerListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrolled(final RecyclerView recyclerView, final int dx, final int dy) {
+            dispatchScroll(dy);
+        }
+    };
+
+    public ScrollCoordinator(@NonNull final BottomNavigation navigation) {
+        this.navigation = navigation;
+        this.touchSlop = ViewConfiguration.get(navigation.getContext()).getScaledTouchSlop() * 2;
+        this.duration = navigation.getResources().getInteger(R.integer.bbn_hide_animation_duration);
+        this.navigationAnimator = new OffsetAnimator(navigation, duration);
+        navigation.scrollCoordinator = this;
+    }
+
+    /**
+     * Sets the toolbar (or any other top view) to be moved together with the navigation
+     */
+    public ScrollCoordinator setToolbar(@Nullable final View view) {
+        if (view == toolbar) {
+            return this;
+        }
+
+        if (null != toolbarAnimator) {
+            toolbarAnimator.cancel();
+            toolbar.setTranslationY(0);
+        }
+
+        toolbar = view;
+        toolbarAnimator = null != view ? new OffsetAnimator(view, duration) : null;
+        return this;
+    }
+
+    public void attach(@NonNull final RecyclerView view) {
+        detach();
+        target = view;
+        view.addOnScrollListener(recyclerListener);
+    }
+
+    public void attach(@NonNull final NestedScrollView view) {
+        detach();
+        target = view;
+        view.setOnScrollChangeListener(this);
+    }
+
+    public void attach(@NonNull final AbsListView view) {
+        detach();
+        target = view;
+        listFirstPosition = RecyclerView.NO_POSITION;
+        view.setOnScrollListener(this);
+    }
+
+    /**
+     * Removes the listener from the current scrolling view, if any. The navigation keeps its current position.
+     */
+    public void detach() {
+        if (target instanceof RecyclerView) {
+            ((RecyclerView) target).removeOnScrollListener(recyclerListener);
+        } else if (target instanceof NestedScrollView) {
+            ((NestedScrollView) target).setOnScrollChangeListener((NestedScrollView.OnScrollChangeListener) null);
+        } else if (target instanceof AbsListView) {
+            ((AbsListView) target).setOnScrollListener(null);
+        }
+        target = null;
+        totalDy = 0;
+    }
+
+    /**
+     * Enables or disables the hide on scroll. When disabled the views are left at their current position.
+     */
+    public void setEnabled(final boolean value) {
+        enabled = value;
+        totalDy = 0;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isExpanded() {
+        return expanded;
+    }
+
+    public void setExpanded(final boolean value, final boolean animate) {
+        log(TAG, INFO, "setExpanded(%b, %b)", value, animate);
+        expanded = value;
+        totalDy = 0;
+
+        // same offset of the BottomBehavior: the navigation and the system navigation bar below it
+        move(navigation, navigationAnimator, value ? 0 : navigation.getNavigationHeight() + navigation.getBottomInset(), animate);
+        if (null != toolbar) {
+            move(toolbar, toolbarAnimator, value ? 0 : -toolbar.getHeight(), animate);
+        }
+    }
+
+    private static void move(final View view, final OffsetAnimator animator, final float value, final boolean animate) {
+        if (animate && ViewCompat.isLaidOut(view)) {
+            animator.animateTo(value);
+        } else {
+            animator.cancel();
+            view.setTranslationY(value);
+        }
+    }
+
+    void dispatchScroll(final int dy) {
+        if (!enabled || dy == 0) {
+            return;
+        }
+
+        if ((dy > 0) != (totalDy > 0)) {
+            totalDy = 0;
+        }
+        totalDy += dy;
+
+        if (expanded && totalDy > touchSlop) {
+            setExpanded(false, true);
+        } else if (!expanded && totalDy < -touchSlop) {
+            setExpanded(true, true);
+        }
+    }
+
+    @Override
+    public void onScrollChange(
+        final NestedScrollView v, final int scrollX, final int scrollY, final int oldScrollX, final int oldScrollY) {
+        dispatchScroll(scrollY - oldScrollY);
+    }
+
+    @Override
+    public void onScrollStateChanged(final AbsListView view, final int scrollState) { }
+
+    @Override
+    public void onScroll(
+        final AbsListView view, final int firstVisibleItem, final int visibleItemCount, final int totalItemCount) {
+        if (view.getChildCount() == 0) {
+            return;
+        }
+
+        // list views don't report pixel offsets: the delta is computed from the first child position,
+        // assuming the skipped rows have the same height of the current first one
+        final View child = view.getChildAt(0);
+        final int top = child.getTop();
+
+        if (listFirstPosition != RecyclerView.NO_POSITION) {
+            final int rows = firstVisibleItem - listFirstPosition;
+            dispatchScroll(listFirstTop - top + rows * child.getHeight());
+        }
+
+        listFirstPosition = firstVisibleItem;
+        listFirstTop = top;
+    }
+}
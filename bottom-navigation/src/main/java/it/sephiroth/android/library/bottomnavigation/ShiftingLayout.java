@@ -2,11 +2,13 @@ package it.sephiroth.android.library.bottomnavigation;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
+import android.content.res.Resources;
 import android.support.annotation.NonNull;
 import android.util.Log;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.animation.DecelerateInterpolator;
 import android.widget.LinearLayout;
 import android.widget.Toast;
 
@@ -22,34 +24,89 @@ import static it.sephiroth.android.library.bottomnavigation.MiscUtils.log;
  */
 public class ShiftingLayout extends ViewGroup implements ItemsLayoutContainer {
     private static final String TAG = ShiftingLayout.class.getSimpleName();
-    public static final double ROUND_DECIMALS = 10d;
-    public static final float RATIO_MIN_INCREASE = 0.05f;
-    private final int maxActiveItemWidth;
-    private final int minActiveItemWidth;
-    private final int maxInactiveItemWidth;
-    private final int minInactiveItemWidth;
+    public static final double ROUND_DECIMALS = ItemsWidth.ROUND_DECIMALS;
+    public static final float RATIO_MIN_INCREASE = ItemsWidth.RATIO_MIN_INCREASE;
+    private static final int MAX_ITEMS = 5;
     private int totalChildrenSize;
     private int minSize, maxSize;
+    private long animationDuration;
     private int selectedIndex;
     private boolean hasFrame;
     OnItemClickListener listener;
     private MenuParser.Menu menu;
+    private ItemsDiff pendingDiff;
+
+    /**
+     * Selection transition. The start and end frames of the items are computed once, then every frame
+     * the items bounds are directly set, without requesting a layout pass
+     */
+    private final FrameAnimator transition;
+    private final int[] startLeft = new int[MAX_ITEMS];
+    private final int[] startWidth = new int[MAX_ITEMS];
+    private final int[] endLeft = new int[MAX_ITEMS];
+    private final int[] endWidth = new int[MAX_ITEMS];
+    private final float[] startExpansion = new float[MAX_ITEMS];
+    private final float[] endExpansion = new float[MAX_ITEMS];
+
+    private final OnTouchListener itemTouchListener = new OnTouchListener() {
+        @Override
+        @SuppressLint ("ClickableViewAccessibility")
+        public boolean onTouch(final View v, final MotionEvent event) {
+            final int action = event.getActionMasked();
+            if (action == MotionEvent.ACTION_DOWN) {
+                if (null != listener) {
+                    listener.onItemPressed(ShiftingLayout.this, v, true);
+                }
+            } else if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+                if (null != listener) {
+                    listener.onItemPressed(ShiftingLayout.this, v, false);
+                }
+            }
+            return false;
+        }
+    };
+
+    private final OnClickListener itemClickListener = new OnClickListener() {
+        @Override
+        public void onClick(final View v) {
+            if (null != listener) {
+                listener.onItemClick(ShiftingLayout.this, v, indexOfChild(v), true);
+            }
+        }
+    };
+
+    private final OnLongClickListener itemLongClickListener = new OnLongClickListener() {
+        @Override
+        public boolean onLongClick(final View v) {
+            final BottomNavigationItem item = ((BottomNavigationItemViewAbstract) v).getItem();
+            Toast.makeText(getContext(), item.getTitle(), Toast.LENGTH_SHORT).show();
+            return true;
+        }
+    };
+
+    private final ItemViewIndex itemViews = new ItemViewIndex();
 
     public ShiftingLayout(final Context context) {
         super(context);
+        setOnHierarchyChangeListener(itemViews);
         totalChildrenSize = 0;
-        maxActiveItemWidth = getResources().getDimensionPixelSize(R.dimen.bbn_shifting_maxActiveItemWidth);
-        minActiveItemWidth = getResources().getDimensionPixelSize(R.dimen.bbn_shifting_minActiveItemWidth);
-        maxInactiveItemWidth = getResources().getDimensionPixelSize(R.dimen.bbn_shifting_maxInactiveItemWidth);
-        minInactiveItemWidth = getResources().getDimensionPixelSize(R.dimen.bbn_shifting_minInactiveItemWidth);
+
+        transition = new FrameAnimator(this, new DecelerateInterpolator(), new FrameAnimator.UpdateListener() {
+            @Override
+            public void onAnimationUpdate(final float fraction) {
+                applyTransition(fraction);
+            }
+        });
     }
 
     @Override
     public void removeAll() {
+        transition.cancel();
         removeAllViews();
         totalChildrenSize = 0;
         selectedIndex = 0;
         menu = null;
+        pendingDiff = null;
     }
 
     @Override
@@ -60,6 +117,14 @@ public class ShiftingLayout extends ViewGroup implements ItemsLayoutContainer {
 
         log(TAG, INFO, "onLayout(change:%b, selectedIndex:%d)", changed, selectedIndex);
 
+        if (transition.isRunning()) {
+            // keep the current transition frame
+            applyTransition(transition.getAnimatedFraction());
+            return;
+        }
+
+        MiscUtils.beginSection(MiscUtils.TRACE_LAYOUT);
+
         if (totalChildrenSize == 0) {
             if (selectedIndex < 0) {
                 totalChildrenSize = minSize * getChildCount();
@@ -77,11 +142,17 @@ public class ShiftingLayout extends ViewGroup implements ItemsLayoutContainer {
             setChildFrame(child, left, 0, params.width, params.height);
             left += child.getWidth();
         }
+
+        if (null != pendingDiff) {
+            pendingDiff.animateChanges(this);
+            pendingDiff = null;
+        }
+        MiscUtils.endSection();
     }
 
     @Override
     protected void onSizeChanged(final int w, final int h, final int oldw, final int oldh) {
-        log(TAG, INFO, "onSizeChanged(" + w + ", " + h + ")");
+        log(TAG, INFO, "onSizeChanged(%d, %d)", w, h);
         super.onSizeChanged(w, h, oldw, oldh);
         hasFrame = true;
 
@@ -107,7 +178,7 @@ public class ShiftingLayout extends ViewGroup implements ItemsLayoutContainer {
 
     @Override
     public void setSelectedIndex(final int index, final boolean animate) {
-        log(TAG, INFO, "setSelectedIndex: " + index);
+        log(TAG, INFO, "setSelectedIndex: %d", index);
 
         if (selectedIndex == index) {
             return;
@@ -139,6 +210,59 @@ public class ShiftingLayout extends ViewGroup implements ItemsLayoutContainer {
         if (null != child) {
             child.setExpanded(true, maxSize, willAnimate);
         }
+
+        if (willAnimate) {
+            startTransition();
+        }
+    }
+
+    private void startTransition() {
+        transition.cancel();
+
+        final int count = Math.min(getChildCount(), MAX_ITEMS);
+        int left = (getWidth() - (minSize * (count - 1) + maxSize)) / 2;
+
+        for (int i = 0; i < count; i++) {
+            final BottomNavigationShiftingItemView child = (BottomNavigationShiftingItemView) getChildAt(i);
+
+            // start from the current frame, in case another transition was running
+            startLeft[i] = child.getLeft();
+            startWidth[i] = child.getWidth();
+            startExpansion[i] = child.getExpansion();
+
+            endLeft[i] = left;
+            endWidth[i] = child.getLayoutParams().width;
+            endExpansion[i] = child.isExpanded() ? 1 : 0;
+            left += endWidth[i];
+        }
+
+        totalChildrenSize = 0;
+        transition.setDuration(animationDuration * 2);
+        transition.start();
+    }
+
+    private void applyTransition(final float fraction) {
+        MiscUtils.beginSection(MiscUtils.TRACE_SELECTION);
+        final int count = Math.min(getChildCount(), MAX_ITEMS);
+        final int height = getHeight();
+
+        for (int i = 0; i < count; i++) {
+            final BottomNavigationShiftingItemView child = (BottomNavigationShiftingItemView) getChildAt(i);
+            final int left = (int) (startLeft[i] + (endLeft[i] - startLeft[i]) * fraction);
+            final int width = (int) (startWidth[i] + (endWidth[i] - startWidth[i]) * fraction);
+
+            child.layout(left, 0, left + width, height);
+            child.setExpansion(startExpansion[i] + (endExpansion[i] - startExpansion[i]) * fraction);
+        }
+        MiscUtils.endSection();
+    }
+
+    @Override
+    public void invalidateBadge(final int itemId) {
+        final BottomNavigationItemViewAbstract view = itemViews.get(itemId);
+        if (null != view) {
+            view.invalidateBadge();
+        }
     }
 
     @Override
@@ -161,7 +285,7 @@ public class ShiftingLayout extends ViewGroup implements ItemsLayoutContainer {
 
     @Override
     public void populate(@NonNull final MenuParser.Menu menu) {
-        log(TAG, INFO, "populate: " + menu);
+        log(TAG, INFO, "populate: %s", menu);
 
         if (hasFrame) {
             populateInternal(menu);
@@ -170,64 +294,98 @@ public class ShiftingLayout extends ViewGroup implements ItemsLayoutContainer {
         }
     }
 
-    private void populateInternal(@NonNull final MenuParser.Menu menu) {
-        log(TAG, Log.DEBUG, "populateInternal");
-
-        final BottomNavigation parent = (BottomNavigation) getParent();
-        final float density = getResources().getDisplayMetrics().density;
-        final int screenWidth = parent.getWidth();
+    @Override
+    public void update(@NonNull final MenuParser.Menu menu, final int selectedIndex) {
+        log(TAG, INFO, "update: %s", menu);
 
-        log(TAG, Log.VERBOSE, "density: " + density);
-        log(TAG, Log.VERBOSE, "screenWidth(dp): " + (screenWidth / density));
+        if (!hasFrame || getChildCount() == 0) {
+            removeAll();
+            this.selectedIndex = selectedIndex;
+            populate(menu);
+            return;
+        }
 
-        int itemWidthMin;
-        int itemWidthMax;
+        transition.cancel();
 
-        final int totalWidth = maxInactiveItemWidth * (menu.getItemsCount() - 1) + maxActiveItemWidth;
-        log(TAG, Log.VERBOSE, "totalWidth(dp): " + totalWidth / density);
+        final BottomNavigation parent = (BottomNavigation) getParent();
+        final ItemsDiff diff = new ItemsDiff(this, false, menu.getItemAnimationDuration());
+        this.animationDuration = menu.getItemAnimationDuration();
+        final int[] sizes = computeItemSizes(getResources(), parent.getWidth(), menu.getItemsCount());
+        setTotalSize(sizes[0], sizes[1]);
 
-        if (totalWidth > screenWidth) {
-            float ratio = (float) screenWidth / totalWidth;
-            ratio = (float) ((double) Math.round(ratio * ROUND_DECIMALS) / ROUND_DECIMALS) + RATIO_MIN_INCREASE;
-            log(TAG, Log.VERBOSE, "ratio: " + ratio);
+        removeAllViewsInLayout();
+        this.totalChildrenSize = 0;
+        this.selectedIndex = selectedIndex;
 
-            itemWidthMin = (int) Math.max(maxInactiveItemWidth * ratio, minInactiveItemWidth);
-            itemWidthMax = (int) (maxActiveItemWidth * ratio);
+        for (int i = 0; i < menu.getItemsCount(); i++) {
+            final BottomNavigationItem item = menu.getItemAt(i);
+            final int size = i == selectedIndex ? maxSize : minSize;
+            BottomNavigationItemViewAbstract view = diff.obtain(item);
 
-            if (BottomNavigation.DEBUG) {
-                log(TAG, Log.DEBUG, "computing sizes...");
-                log(TAG, Log.VERBOSE, "itemWidthMin(dp): " + itemWidthMin / density);
-                log(TAG, Log.VERBOSE, "itemWidthMax(dp): " + itemWidthMax / density);
-                log(TAG, Log.VERBOSE, "total items size(dp): "
-                    + (itemWidthMin * (menu.getItemsCount() - 1) + itemWidthMax) / density);
+            if (null == view) {
+                view = newItemView(parent, item, i == selectedIndex, menu);
+                diff.onViewAdded(view);
             }
 
-            if (itemWidthMin * (menu.getItemsCount() - 1) + itemWidthMax > screenWidth) {
-                itemWidthMax = screenWidth - (itemWidthMin * (menu.getItemsCount() - 1)); // minActiveItemWidth?
-                if (itemWidthMax == itemWidthMin) {
-                    itemWidthMin = minInactiveItemWidth;
-                    itemWidthMax = screenWidth - (itemWidthMin * (menu.getItemsCount() - 1));
-                }
-            }
-        } else {
-            itemWidthMax = maxActiveItemWidth;
-            itemWidthMin = maxInactiveItemWidth;
+            view.setLayoutParams(new LinearLayout.LayoutParams(size, getHeight()));
+            view.setExpanded(i == selectedIndex, size, false);
+            addView(view);
         }
 
+        diff.removeUnused(this);
+        pendingDiff = diff;
+        requestLayout();
+    }
+
+    private BottomNavigationItemViewAbstract newItemView(
+        final BottomNavigation parent, final BottomNavigationItem item, final boolean expanded, final MenuParser.Menu menu) {
+        final BottomNavigationShiftingItemView view = new BottomNavigationShiftingItemView(parent, expanded, menu);
+        view.setItem(item);
+        view.setClickable(true);
+        view.setTypeface(parent.typeface);
+        view.setOnTouchListener(itemTouchListener);
+        view.setOnClickListener(itemClickListener);
+        view.setOnLongClickListener(itemLongClickListener);
+        return view;
+    }
+
+    /**
+     * Computes the inactive and active items width for the available space
+     *
+     * @return the inactive and the active item width
+     */
+    static int[] computeItemSizes(final Resources res, final int screenWidth, final int itemsCount) {
+        final int maxActiveItemWidth = res.getDimensionPixelSize(R.dimen.bbn_shifting_maxActiveItemWidth);
+        final int maxInactiveItemWidth = res.getDimensionPixelSize(R.dimen.bbn_shifting_maxInactiveItemWidth);
+        final int minInactiveItemWidth = res.getDimensionPixelSize(R.dimen.bbn_shifting_minInactiveItemWidth);
+
+        final int[] sizes = new int[2];
+        ItemsWidth.computeShifting(
+            screenWidth, itemsCount, maxActiveItemWidth, maxInactiveItemWidth, minInactiveItemWidth, sizes);
+
         if (BottomNavigation.DEBUG) {
-            log(TAG, Log.VERBOSE, "active size (dp): "
-                + maxActiveItemWidth / density + ", " + minActiveItemWidth / density);
-            log(TAG, Log.VERBOSE, "inactive size (dp): "
-                + maxInactiveItemWidth / density + ", " + minInactiveItemWidth / density);
-            log(TAG, Log.VERBOSE, "itemWidth(dp): "
-                + (itemWidthMin / density) + ", " + (itemWidthMax / density));
+            final float density = res.getDisplayMetrics().density;
+            log(TAG, Log.VERBOSE, "screenWidth(dp): %g", screenWidth / density);
+            log(TAG, Log.VERBOSE, "itemWidth(dp): %g, %g",
+                sizes[ItemsWidth.INACTIVE] / density, sizes[ItemsWidth.ACTIVE] / density);
         }
+        return sizes;
+    }
+
+    private void populateInternal(@NonNull final MenuParser.Menu menu) {
+        log(TAG, Log.DEBUG, "populateInternal");
+        MiscUtils.beginSection(MiscUtils.TRACE_POPULATE);
 
-        setTotalSize(itemWidthMin, itemWidthMax);
+        final BottomNavigation parent = (BottomNavigation) getParent();
+        final int[] sizes = computeItemSizes(getResources(), parent.getWidth(), menu.getItemsCount());
+        setTotalSize(sizes[0], sizes[1]);
+        final int itemWidthMin = minSize;
+        final int itemWidthMax = maxSize;
+        this.animationDuration = menu.getItemAnimationDuration();
 
         for (int i = 0; i < menu.getItemsCount(); i++) {
             final BottomNavigationItem item = menu.getItemAt(i);
-            log(TAG, Log.DEBUG, "item: " + item);
+            log(TAG, Log.DEBUG, "item: %s", item);
 
             LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(itemWidthMin, getHeight());
 
@@ -235,47 +393,10 @@ public class ShiftingLayout extends ViewGroup implements ItemsLayoutContainer {
                 params.width = itemWidthMax;
             }
 
-            BottomNavigationItemViewAbstract view =
-                new BottomNavigationShiftingItemView(parent, i == selectedIndex, menu);
-            view.setItem(item);
+            final BottomNavigationItemViewAbstract view = newItemView(parent, item, i == selectedIndex, menu);
             view.setLayoutParams(params);
-            view.setClickable(true);
-            view.setTypeface(parent.typeface);
-            final int finalI = i;
-
-            view.setOnTouchListener(new OnTouchListener() {
-                @Override
-                @SuppressLint ("ClickableViewAccessibility")
-                public boolean onTouch(final View v, final MotionEvent event) {
-                    final int action = event.getActionMasked();
-                    if (action == MotionEvent.ACTION_DOWN) {
-                        if (null != listener) {
-                            listener.onItemPressed(ShiftingLayout.this, v, true);
-                        }
-                    } else if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
-                        if (null != listener) {
-                            listener.onItemPressed(ShiftingLayout.this, v, false);
-                        }
-                    }
-                    return false;
-                }
-            });
-            view.setOnClickListener(new OnClickListener() {
-                @Override
-                public void onClick(final View v) {
-                    if (null != listener) {
-                        listener.onItemClick(ShiftingLayout.this, v, finalI, true);
-                    }
-                }
-            });
-            view.setOnLongClickListener(new OnLongClickListener() {
-                @Override
-                public boolean onLongClick(final View v) {
-                    Toast.makeText(getContext(), item.getTitle(), Toast.LENGTH_SHORT).show();
-                    return true;
-                }
-            });
             addView(view);
         }
+        MiscUtils.endSection();
     }
 }
@@ -48,23 +48,63 @@ public class TabletBehavior extends VerticalScrollingBehavior<BottomNavigation>
         return AppBarLayout.class.isInstance(dependency) || Toolbar.class.isInstance(dependency);
     }
 
+    /**
+     * The layout params are only changed when the dependency steady state geometry (its layout position, height and
+     * scroll range) changes. While the app bar scrolls the navigation follows it using its translation: it is laid out
+     * at the expanded position and extended at the bottom by the scroll range, so that moving up doesn't
+     * uncover the area below it.
+     */
     @Override
     public boolean onDependentViewChanged(
         final CoordinatorLayout parent, final BottomNavigation child, final View dependency) {
-        ViewGroup.MarginLayoutParams params = (ViewGroup.MarginLayoutParams) child.getLayoutParams();
+        final ViewGroup.MarginLayoutParams params = (ViewGroup.MarginLayoutParams) child.getLayoutParams();
         final int top = Build.VERSION.SDK_INT > 19 ? topInset : translucentStatus ? topInset : 0;
-        params.topMargin = Math.max(dependency.getTop() + dependency.getHeight() - top, translucentStatus ? 0 : -top);
+        final int minMargin = translucentStatus ? 0 : -top;
+        final int scrollRange = getScrollRange(dependency);
+        final int layoutBottom = dependency.getBottom() - getScrollOffset(dependency);
+
+        final int expandedMargin = Math.max(layoutBottom - top, minMargin);
+        final int collapsedMargin = Math.max(layoutBottom - scrollRange - top, minMargin);
+        final int margin = Math.max(dependency.getBottom() - top, minMargin);
+        boolean changed = false;
+
+        if (params.topMargin != expandedMargin || params.bottomMargin != collapsedMargin - expandedMargin) {
+            log(TAG, INFO, "steady state changed, margins: %d, %d", expandedMargin, collapsedMargin - expandedMargin);
+            params.topMargin = expandedMargin;
+            params.bottomMargin = collapsedMargin - expandedMargin;
+            child.requestLayout();
+            changed = true;
+        }
 
         if (translucentStatus) {
-            if (params.topMargin < top) {
-                child.setPadding(0, top - params.topMargin, 0, 0);
-            } else {
-                child.setPadding(0, 0, 0, 0);
-            }
+            // setPadding is a no-op if the padding didn't change, this only happens while the
+            // navigation moves under the status bar
+            child.setPadding(0, Math.max(0, top - margin), 0, 0);
+        }
+
+        if (child.getTranslationY() != margin - expandedMargin) {
+            child.setTranslationY(margin - expandedMargin);
+            changed = true;
+        }
+        return changed;
+    }
+
+    private static int getScrollRange(final View dependency) {
+        if (AppBarLayout.class.isInstance(dependency)) {
+            return ((AppBarLayout) dependency).getTotalScrollRange();
         }
+        return 0;
+    }
 
-        child.requestLayout();
-        return true;
+    /**
+     * Current offset applied by the dependency behavior to its layout position
+     */
+    private static int getScrollOffset(final View dependency) {
+        final CoordinatorLayout.Behavior behavior = ((CoordinatorLayout.LayoutParams) dependency.getLayoutParams()).getBehavior();
+        if (behavior instanceof AppBarLayout.Behavior) {
+            return ((AppBarLayout.Behavior) behavior).getTopAndBottomOffset();
+        }
+        return 0;
     }
 
     @Override
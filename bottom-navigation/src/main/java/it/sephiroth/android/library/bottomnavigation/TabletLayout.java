@@ -28,9 +28,49 @@ public class TabletLayout extends ViewGroup implements ItemsLayoutContainer {
     private int selectedIndex;
     OnItemClickListener listener;
     private MenuParser.Menu menu;
+    private ItemsDiff pendingDiff;
+
+    private final OnTouchListener itemTouchListener = new OnTouchListener() {
+        @Override
+        @SuppressLint ("ClickableViewAccessibility")
+        public boolean onTouch(final View v, final MotionEvent event) {
+            final int action = event.getActionMasked();
+            if (action == MotionEvent.ACTION_DOWN) {
+                if (null != listener) {
+                    listener.onItemPressed(TabletLayout.this, v, true);
+                }
+            } else if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+                if (null != listener) {
+                    listener.onItemPressed(TabletLayout.this, v, false);
+                }
+            }
+            return false;
+        }
+    };
+
+    private final OnClickListener itemClickListener = new OnClickListener() {
+        @Override
+        public void onClick(final View v) {
+            if (null != listener) {
+                listener.onItemClick(TabletLayout.this, v, indexOfChild(v), true);
+            }
+        }
+    };
+
+    private final OnLongClickListener itemLongClickListener = new OnLongClickListener() {
+        @Override
+        public boolean onLongClick(final View v) {
+            final BottomNavigationItem item = ((BottomNavigationItemViewAbstract) v).getItem();
+            Toast.makeText(getContext(), item.getTitle(), Toast.LENGTH_SHORT).show();
+            return true;
+        }
+    };
+
+    private final ItemViewIndex itemViews = new ItemViewIndex();
 
     public TabletLayout(final Context context) {
         super(context);
+        setOnHierarchyChangeListener(itemViews);
         final Resources res = getResources();
         selectedIndex = 0;
         itemHeight = res.getDimensionPixelSize(R.dimen.bbn_tablet_item_height);
@@ -42,6 +82,7 @@ public class TabletLayout extends ViewGroup implements ItemsLayoutContainer {
         removeAllViews();
         selectedIndex = 0;
         menu = null;
+        pendingDiff = null;
     }
 
     @Override
@@ -49,6 +90,7 @@ public class TabletLayout extends ViewGroup implements ItemsLayoutContainer {
         if (!hasFrame || getChildCount() == 0) {
             return;
         }
+        MiscUtils.beginSection(MiscUtils.TRACE_LAYOUT);
         int top = paddingTop;
 
         for (int i = 0; i < getChildCount(); i++) {
@@ -57,6 +99,12 @@ public class TabletLayout extends ViewGroup implements ItemsLayoutContainer {
             setChildFrame(child, 0, top, params.width, params.height);
             top += child.getHeight();
         }
+
+        if (null != pendingDiff) {
+            pendingDiff.animateChanges(this);
+            pendingDiff = null;
+        }
+        MiscUtils.endSection();
     }
 
     @Override
@@ -71,13 +119,15 @@ public class TabletLayout extends ViewGroup implements ItemsLayoutContainer {
     }
 
     private void setChildFrame(View child, int left, int top, int width, int height) {
-        MiscUtils.log(TAG, Log.VERBOSE, "setChildFrame: " + left + ", " + top + ", " + width + ", " + height);
+        if (BottomNavigation.DEBUG) {
+            MiscUtils.log(TAG, Log.VERBOSE, "setChildFrame: %d, %d, %d, %d", left, top, width, height);
+        }
         child.layout(left, top, left + width, top + height);
     }
 
     @Override
     public void setSelectedIndex(final int index, final boolean animate) {
-        MiscUtils.log(TAG, Log.INFO, "setSelectedIndex: " + index);
+        MiscUtils.log(TAG, Log.INFO, "setSelectedIndex: %d", index);
 
         if (selectedIndex == index) {
             return;
@@ -101,6 +151,14 @@ public class TabletLayout extends ViewGroup implements ItemsLayoutContainer {
         }
     }
 
+    @Override
+    public void invalidateBadge(final int itemId) {
+        final BottomNavigationItemViewAbstract view = itemViews.get(itemId);
+        if (null != view) {
+            view.invalidateBadge();
+        }
+    }
+
     @Override
     public void setItemEnabled(final int index, final boolean enabled) {
         log(TAG, INFO, "setItemEnabled(%d, %b)", index, enabled);
@@ -119,7 +177,7 @@ public class TabletLayout extends ViewGroup implements ItemsLayoutContainer {
 
     @Override
     public void populate(@NonNull final MenuParser.Menu menu) {
-        MiscUtils.log(TAG, Log.INFO, "populate: " + menu);
+        MiscUtils.log(TAG, Log.INFO, "populate: %s", menu);
 
         if (hasFrame) {
             populateInternal(menu);
@@ -133,57 +191,70 @@ public class TabletLayout extends ViewGroup implements ItemsLayoutContainer {
         this.listener = listener;
     }
 
+    @Override
+    public void update(@NonNull final MenuParser.Menu menu, final int selectedIndex) {
+        log(TAG, INFO, "update: %s", menu);
+
+        if (!hasFrame || getChildCount() == 0) {
+            removeAll();
+            this.selectedIndex = selectedIndex;
+            populate(menu);
+            return;
+        }
+
+        final BottomNavigation parent = (BottomNavigation) getParent();
+        final ItemsDiff diff = new ItemsDiff(this, true, menu.getItemAnimationDuration());
+
+        removeAllViewsInLayout();
+        this.selectedIndex = selectedIndex;
+
+        for (int i = 0; i < menu.getItemsCount(); i++) {
+            final BottomNavigationItem item = menu.getItemAt(i);
+            BottomNavigationItemViewAbstract view = diff.obtain(item);
+
+            if (null == view) {
+                view = newItemView(parent, item, i == selectedIndex, menu);
+                diff.onViewAdded(view);
+            }
+
+            view.setLayoutParams(new LinearLayout.LayoutParams(getWidth(), itemHeight));
+            view.setExpanded(i == selectedIndex, 0, false);
+            addView(view);
+        }
+
+        diff.removeUnused(this);
+        pendingDiff = diff;
+        requestLayout();
+    }
+
+    private BottomNavigationItemViewAbstract newItemView(
+        final BottomNavigation parent, final BottomNavigationItem item, final boolean expanded, final MenuParser.Menu menu) {
+        final BottomNavigationTabletItemView view = new BottomNavigationTabletItemView(parent, expanded, menu);
+        view.setItem(item);
+        view.setClickable(true);
+        view.setTypeface(parent.typeface);
+        view.setOnTouchListener(itemTouchListener);
+        view.setOnClickListener(itemClickListener);
+        view.setOnLongClickListener(itemLongClickListener);
+        return view;
+    }
+
     private void populateInternal(@NonNull final MenuParser.Menu menu) {
         MiscUtils.log(TAG, Log.DEBUG, "populateInternal");
+        MiscUtils.beginSection(MiscUtils.TRACE_POPULATE);
 
         final BottomNavigation parent = (BottomNavigation) getParent();
 
         for (int i = 0; i < menu.getItemsCount(); i++) {
             final BottomNavigationItem item = menu.getItemAt(i);
-            MiscUtils.log(TAG, Log.DEBUG, "item: " + item);
+            MiscUtils.log(TAG, Log.DEBUG, "item: %s", item);
 
             LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(getWidth(), itemHeight);
 
-            BottomNavigationTabletItemView view =
-                new BottomNavigationTabletItemView(parent, i == selectedIndex, menu);
-            view.setItem(item);
+            final BottomNavigationItemViewAbstract view = newItemView(parent, item, i == selectedIndex, menu);
             view.setLayoutParams(params);
-            view.setClickable(true);
-            view.setTypeface(parent.typeface);
-            final int finalI = i;
-            view.setOnTouchListener(new OnTouchListener() {
-                @Override
-                @SuppressLint ("ClickableViewAccessibility")
-                public boolean onTouch(final View v, final MotionEvent event) {
-                    final int action = event.getActionMasked();
-                    if (action == MotionEvent.ACTION_DOWN) {
-                        if (null != listener) {
-                            listener.onItemPressed(TabletLayout.this, v, true);
-                        }
-                    } else if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
-                        if (null != listener) {
-                            listener.onItemPressed(TabletLayout.this, v, false);
-                        }
-                    }
-                    return false;
-                }
-            });
-            view.setOnClickListener(new OnClickListener() {
-                @Override
-                public void onClick(final View v) {
-                    if (null != listener) {
-                        listener.onItemClick(TabletLayout.this, v, finalI, true);
-                    }
-                }
-            });
-            view.setOnLongClickListener(new OnLongClickListener() {
-                @Override
-                public boolean onLongClick(final View v) {
-                    Toast.makeText(getContext(), item.getTitle(), Toast.LENGTH_SHORT).show();
-                    return true;
-                }
-            });
             addView(view);
         }
+        MiscUtils.endSection();
     }
 }
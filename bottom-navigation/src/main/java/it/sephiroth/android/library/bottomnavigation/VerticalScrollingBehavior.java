@@ -17,6 +17,18 @@ import java.lang.annotation.RetentionPolicy;
  */
 public abstract class VerticalScrollingBehavior<V extends View> extends CoordinatorLayout.Behavior<V> {
 
+    /**
+     * Time constant (ms) of the scroll velocity exponential smoothing
+     */
+    private static final float VELOCITY_TIME_CONSTANT = 50f;
+
+    /**
+     * Samples older than this (ms) are ignored, the scroll is considered stopped
+     */
+    private static final long VELOCITY_TIMEOUT = 100;
+
+    private static final float MILLIS = 1000f;
+
     private int mTotalDyUnconsumed = 0;
     private int mTotalDy = 0;
     @ScrollDirection
@@ -24,6 +36,10 @@ public abstract class VerticalScrollingBehavior<V extends View> extends Coordina
     @ScrollDirection
     private int mScrollDirection = ScrollDirection.SCROLL_NONE;
 
+    private float mScrollVelocity;
+    private long mLastScrollTime;
+    private int mPendingDy;
+
     public VerticalScrollingBehavior(Context context, AttributeSet attrs) {
         super(context, attrs);
     }
@@ -57,6 +73,48 @@ public abstract class VerticalScrollingBehavior<V extends View> extends Coordina
         return mScrollDirection;
     }
 
+    /**
+     * @return the smoothed velocity (px/s) of the current nested scroll, positive when the content is scrolled up.
+     * Returns 0 if the scroll has been idle for a while
+     */
+    public float getScrollVelocity() {
+        if (AnimationClock.get().uptimeMillis() - mLastScrollTime > VELOCITY_TIMEOUT) {
+            return 0;
+        }
+        return mScrollVelocity;
+    }
+
+    private void resetScrollVelocity() {
+        mScrollVelocity = 0;
+        mPendingDy = 0;
+        mLastScrollTime = AnimationClock.get().uptimeMillis();
+    }
+
+    /**
+     * Adds a scroll delta to the velocity estimator
+     */
+    private void addScrollSample(final int dy) {
+        final long now = AnimationClock.get().uptimeMillis();
+        final long elapsed = now - mLastScrollTime;
+
+        if (elapsed <= 0) {
+            // more events in the same frame
+            mPendingDy += dy;
+            return;
+        }
+
+        final float velocity = (dy + mPendingDy) * MILLIS / elapsed;
+        mPendingDy = 0;
+        mLastScrollTime = now;
+
+        if (elapsed > VELOCITY_TIMEOUT) {
+            mScrollVelocity = velocity;
+        } else {
+            final float alpha = 1 - (float) Math.exp(-elapsed / VELOCITY_TIME_CONSTANT);
+            mScrollVelocity += alpha * (velocity - mScrollVelocity);
+        }
+    }
+
     /**
      * @param coordinatorLayout
      * @param child
@@ -84,6 +142,7 @@ public abstract class VerticalScrollingBehavior<V extends View> extends Coordina
     public void onNestedScrollAccepted(
         CoordinatorLayout coordinatorLayout, V child, View directTargetChild, View target, int nestedScrollAxes) {
         super.onNestedScrollAccepted(coordinatorLayout, child, directTargetChild, target, nestedScrollAxes);
+        resetScrollVelocity();
     }
 
     @Override
@@ -118,6 +177,7 @@ public abstract class VerticalScrollingBehavior<V extends View> extends Coordina
             mScrollDirection = ScrollDirection.SCROLL_DIRECTION_DOWN;
         }
         mTotalDy += dy;
+        addScrollSample(dy);
         onDirectionNestedPreScroll(coordinatorLayout, child, target, dx, dy, consumed, mScrollDirection);
     }
 
@@ -125,8 +185,9 @@ public abstract class VerticalScrollingBehavior<V extends View> extends Coordina
     public boolean onNestedFling(
         CoordinatorLayout coordinatorLayout, V child, View target, float velocityX, float velocityY, boolean consumed) {
         super.onNestedFling(coordinatorLayout, child, target, velocityX, velocityY, consumed);
-        mScrollDirection = velocityY > 0 ? ScrollDirection.SCROLL_DIRECTION_UP : ScrollDirection.SCROLL_DIRECTION_DOWN;
-        return onNestedDirectionFling(coordinatorLayout, child, target, velocityX, velocityY, mScrollDirection);
+        // the fling direction doesn't change the direction of the touch scroll
+        final int direction = velocityY > 0 ? ScrollDirection.SCROLL_DIRECTION_UP : ScrollDirection.SCROLL_DIRECTION_DOWN;
+        return onNestedDirectionFling(coordinatorLayout, child, target, velocityX, velocityY, direction);
     }
 
     protected abstract boolean onNestedDirectionFling(
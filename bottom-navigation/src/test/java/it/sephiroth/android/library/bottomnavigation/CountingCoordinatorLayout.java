@@ -0,0 +1,52 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+import android.content.Context;
+import android.graphics.Rect;
+import android.support.design.widget.CoordinatorLayout;
+import android.view.ViewParent;
+
+/**
+ * CoordinatorLayout counting the layout requests, the layout passes and the invalidations of its descendants.<br />
+ * Requests and invalidations are counted when they reach this view: repeated calls already pending
+ * (a second requestLayout before the layout pass, a second invalidate before the draw) are not propagated
+ * by the framework and are not counted, so the counters measure the actual work triggered.
+ */
+class CountingCoordinatorLayout extends CoordinatorLayout {
+    int requestLayoutCount;
+    int layoutCount;
+    int invalidateCount;
+
+    CountingCoordinatorLayout(final Context context) {
+        super(context);
+    }
+
+    void reset() {
+        requestLayoutCount = 0;
+        layoutCount = 0;
+        invalidateCount = 0;
+    }
+
+    @Override
+    public void requestLayout() {
+        requestLayoutCount++;
+        super.requestLayout();
+    }
+
+    @Override
+    protected void onLayout(final boolean changed, final int l, final int t, final int r, final int b) {
+        layoutCount++;
+        super.onLayout(changed, l, t, r, b);
+    }
+
+    @Override
+    public void invalidate() {
+        invalidateCount++;
+        super.invalidate();
+    }
+
+    @Override
+    public ViewParent invalidateChildInParent(final int[] location, final Rect dirty) {
+        invalidateCount++;
+        return super.invalidateChildInParent(location, dirty);
+    }
+}
@@ -0,0 +1,67 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * Animation clock stepped by hand: time only moves on {@link #advance(long)}, which runs the callbacks
+ * posted for the next frame. Callbacks posted while a frame is running are deferred to the following one.
+ */
+class ManualAnimationClock extends AnimationClock {
+    private final ArrayList<Runnable> callbacks = new ArrayList<>();
+    private final ArrayList<Runnable> running = new ArrayList<>();
+    private long time;
+    private float durationScale = 1f;
+
+    ManualAnimationClock(final long startTime) {
+        this.time = startTime;
+    }
+
+    /**
+     * Fixed duration scale, so that replays don't depend on the device settings
+     */
+    @Override
+    public float getDurationScale() {
+        return durationScale;
+    }
+
+    void setDurationScale(final float scale) {
+        durationScale = scale;
+    }
+
+    @Override
+    public long uptimeMillis() {
+        return time;
+    }
+
+    @Override
+    public void postFrameCallback(@NonNull final View view, @NonNull final Runnable callback) {
+        callbacks.add(callback);
+    }
+
+    @Override
+    public void removeFrameCallback(@NonNull final View view, @NonNull final Runnable callback) {
+        callbacks.removeAll(Collections.singleton(callback));
+        running.removeAll(Collections.singleton(callback));
+    }
+
+    int getPendingCount() {
+        return callbacks.size();
+    }
+
+    /**
+     * Moves the time forward and runs the callbacks posted before this call
+     */
+    void advance(final long millis) {
+        time += millis;
+        running.addAll(callbacks);
+        callbacks.clear();
+
+        while (!running.isEmpty()) {
+            running.remove(0).run();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import it.sephiroth.android.library.bottonnavigation.BuildConfig;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Layout, invalidation and allocation budgets of the hot paths: selection changes, nested scroll events,
+ * badges and enabled state changes.<br />
+ * The navigation is hosted by a {@link ReplayHarness}: every operation is followed by a frame, and the counters
+ * cover both. Operations completed in a single frame are checked against the worst frame, the others against
+ * the totals. Allocations are measured around the operation only, on a warmed up instance, minus the cost of the
+ * measurement itself: the hot paths must not allocate, the small per event budget only absorbs the counter
+ * granularity. The tests fail if the JVM doesn't provide the per-thread allocation counter.
+ */
+@RunWith (RobolectricTestRunner.class)
+@Config (constants = BuildConfig.class, sdk = 25)
+public class PerformanceBudgetTest {
+    private static final int[] IDS = {1, 2, 3, 4, 5};
+
+    private static final int REPEAT = 20;
+    private static final int SCROLL_EVENTS = 30;
+    private static final int SCROLL_DELTA = 12;
+
+    /**
+     * Average bytes allocated per operation, once the measurement overhead is subtracted
+     */
+    private static final long ALLOCATION_BUDGET = 16;
+
+    private ReplayHarness harness;
+
+    @After
+    public void tearDown() throws Exception {
+        if (null != harness) {
+            harness.release();
+        }
+    }
+
+    @Test
+    public void selectionShifting() throws Exception {
+        harness = new ReplayHarness(4);
+        assertSelectionBudget();
+    }
+
+    @Test
+    public void selectionFixed() throws Exception {
+        harness = new ReplayHarness(3);
+        assertSelectionBudget();
+    }
+
+    @Test
+    public void nestedScroll() throws Exception {
+        harness = new ReplayHarness(4);
+
+        // warm up: hide and show once
+        scroll(SCROLL_DELTA, SCROLL_EVENTS);
+        scroll(-SCROLL_DELTA, SCROLL_EVENTS);
+        harness.settle();
+
+        harness.reset();
+        long allocated = 0;
+        for (int i = 0; i < SCROLL_EVENTS * 2; i++) {
+            final long start = allocatedBytes();
+            harness.nestedScroll(i < SCROLL_EVENTS ? SCROLL_DELTA : -SCROLL_DELTA);
+            allocated += allocatedBytes() - start;
+            harness.frame();
+        }
+        harness.stopNestedScroll();
+
+        // the navigation is only translated: scrolling never triggers a layout pass
+        assertBudget("scroll requestLayout", harness.getTotalRequestLayout(), 0);
+        assertBudget("scroll layout", harness.getTotalLayout(), 0);
+        assertBudget("scroll invalidate per event", harness.getMaxInvalidate(), 2);
+        assertAllocationBudget("scroll", allocated, SCROLL_EVENTS * 2);
+    }
+
+    @Test
+    public void badges() throws Exception {
+        harness = new ReplayHarness(4);
+        final BadgeProvider provider = harness.navigation.getBadgeProvider();
+
+        provider.show(IDS[1]);
+        provider.remove(IDS[1]);
+        harness.settle();
+
+        harness.reset();
+        long allocated = 0;
+        for (int i = 0; i < REPEAT; i++) {
+            long start = allocatedBytes();
+            provider.show(IDS[1]);
+            allocated += allocatedBytes() - start;
+            harness.frame();
+
+            start = allocatedBytes();
+            provider.remove(IDS[1]);
+            allocated += allocatedBytes() - start;
+            harness.frame();
+        }
+
+        assertBudget("badge requestLayout", harness.getTotalRequestLayout(), 0);
+        assertBudget("badge layout", harness.getTotalLayout(), 0);
+        assertBudget("badge invalidate per change", harness.getMaxInvalidate(), 2);
+        assertAllocationBudget("badge", allocated, REPEAT * 2);
+    }
+
+    @Test
+    public void itemEnabled() throws Exception {
+        harness = new ReplayHarness(4);
+        final BottomNavigation navigation = harness.navigation;
+
+        navigation.setMenuItemEnabled(2, false);
+        navigation.setMenuItemEnabled(2, true);
+        harness.settle();
+
+        harness.reset();
+        long allocated = 0;
+        for (int i = 0; i < REPEAT; i++) {
+            final long start = allocatedBytes();
+            navigation.setMenuItemEnabled(2, i % 2 != 0);
+            allocated += allocatedBytes() - start;
+            harness.frame();
+        }
+
+        assertBudget("enabled requestLayout per change", harness.getMaxRequestLayout(), 1);
+        assertBudget("enabled layout per change", harness.getMaxLayout(), 1);
+        assertBudget("enabled invalidate per change", harness.getMaxInvalidate(), 4);
+        assertAllocationBudget("enabled", allocated, REPEAT);
+    }
+
+    private void assertSelectionBudget() {
+        final BottomNavigation navigation = harness.navigation;
+        navigation.setSelectedIndex(1, true);
+        navigation.setSelectedIndex(0, true);
+        harness.settle();
+
+        harness.reset();
+        long allocated = 0;
+        for (int i = 0; i < REPEAT; i++) {
+            final long start = allocatedBytes();
+            navigation.setSelectedIndex((i + 1) % navigation.getMenuItemCount(), true);
+            allocated += allocatedBytes() - start;
+            harness.settle();
+        }
+
+        // the selection animation moves the items directly, without going through a layout pass
+        assertBudget("selection requestLayout", harness.getTotalRequestLayout(), 0);
+        assertBudget("selection layout", harness.getTotalLayout(), 0);
+        assertAllocationBudget("selection", allocated, REPEAT);
+    }
+
+    /**
+     * Dispatches <code>events</code> nested scroll events of <code>dy</code> pixels, one per frame
+     */
+    private void scroll(final int dy, final int events) {
+        for (int i = 0; i < events; i++) {
+            harness.nestedScroll(dy);
+            harness.frame();
+        }
+    }
+
+    private static long allocatedBytes() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)
+            || !((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            fail("the per-thread allocation counter is not available on this JVM");
+        }
+
+        final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        if (!threadBean.isThreadAllocatedMemoryEnabled()) {
+            threadBean.setThreadAllocatedMemoryEnabled(true);
+        }
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Bytes allocated by <code>count</code> empty measurements, the baseline of the allocation budgets
+     */
+    private static long measurementOverhead(final int count) {
+        long allocated = 0;
+        for (int i = 0; i < count; i++) {
+            final long start = allocatedBytes();
+            allocated += allocatedBytes() - start;
+        }
+        return allocated;
+    }
+
+    private static void assertBudget(final String name, final int value, final int budget) {
+        assertTrue(name + ": " + value + " exceeds the budget of " + budget, value <= budget);
+    }
+
+    /**
+     * @param bytes  bytes allocated by the measured operations
+     * @param events number of measurements
+     */
+    private static void assertAllocationBudget(final String name, final long bytes, final int events) {
+        final long delta = bytes - measurementOverhead(events);
+        assertTrue(name + ": " + delta + " bytes allocated by " + events + " operations, budget is "
+            + ALLOCATION_BUDGET + " per operation", delta <= ALLOCATION_BUDGET * events);
+    }
+}
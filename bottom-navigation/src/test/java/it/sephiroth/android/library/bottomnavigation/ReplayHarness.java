@@ -0,0 +1,315 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.support.design.widget.CoordinatorLayout;
+import android.support.v4.view.ViewCompat;
+import android.view.Gravity;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.robolectric.Robolectric;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.Locale;
+
+import it.sephiroth.android.library.bottonnavigation.R;
+
+/**
+ * Replays scripted touch and nested scroll sequences on a BottomNavigation hosted in a CoordinatorLayout,
+ * stepping the animations frame by frame with a {@link ManualAnimationClock}.<br />
+ * Every input step is followed by one frame, and every frame runs the animation callbacks, the pending
+ * main thread tasks, a layout pass (if requested) and a draw. The per-frame work is recorded in a trace,
+ * so two replays of the same script can be compared.<br />
+ * Scripts are arrays of steps: <code>{DOWN, x, y}</code>, <code>{MOVE, x, y}</code>, <code>{UP, x, y}</code>,
+ * <code>{SCROLL, dy}</code>, <code>{STOP}</code> (ends the nested scroll) and <code>{FRAMES, count}</code>.
+ */
+class ReplayHarness {
+    static final long FRAME_MILLIS = 16;
+    static final long START_TIME = 1000;
+
+    static final int DOWN = 0;
+    static final int MOVE = 1;
+    static final int UP = 2;
+    static final int SCROLL = 3;
+    static final int STOP = 4;
+    static final int FRAMES = 5;
+
+    /**
+     * Same number of move events of the espresso CustomSwipe
+     */
+    static final int SWIPE_EVENT_COUNT = 10;
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int MAX_SETTLE_FRAMES = 600;
+
+    final ManualAnimationClock clock = new ManualAnimationClock(START_TIME);
+    final CountingCoordinatorLayout coordinator;
+    final BottomNavigation navigation;
+    final View scrollingView;
+
+    private final Canvas canvas;
+    private final int[] consumed = new int[2];
+    private final StringBuilder trace = new StringBuilder();
+    private boolean scrolling;
+    private long downTime;
+
+    private int frames;
+    private int maxRequestLayout;
+    private int maxLayout;
+    private int maxInvalidate;
+    private long maxFrameNanos;
+    private int totalRequestLayout;
+    private int totalLayout;
+    private int totalInvalidate;
+
+    ReplayHarness(final int itemsCount) {
+        AnimationClock.set(clock);
+
+        final ActivityController<Activity> controller = Robolectric.buildActivity(Activity.class);
+        final Activity activity = controller.get();
+        activity.setTheme(R.style.Theme_AppCompat_Light);
+        controller.create();
+
+        coordinator = new CountingCoordinatorLayout(activity);
+        scrollingView = new View(activity);
+        coordinator.addView(scrollingView, new CoordinatorLayout.LayoutParams(
+            ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+
+        navigation = new BottomNavigation(activity);
+        final CoordinatorLayout.LayoutParams params =
+            new CoordinatorLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+        params.gravity = Gravity.BOTTOM;
+        params.setBehavior(new BottomBehavior(activity, null));
+        coordinator.addView(navigation, params);
+
+        activity.setContentView(coordinator);
+        controller.start().resume().visible();
+
+        final BottomNavigationItem[] items = new BottomNavigationItem[itemsCount];
+        for (int i = 0; i < itemsCount; i++) {
+            items[i] = new BottomNavigationItem(i + 1, R.drawable.bbn_top_shadow, "Item " + i);
+        }
+
+        final MenuParser.Menu menu = new MenuParser.Menu(activity);
+        menu.setItems(items);
+        navigation.setItems(menu);
+
+        canvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+        settle();
+        reset();
+    }
+
+    /**
+     * Restores the default animation clock
+     */
+    void release() {
+        AnimationClock.set(null);
+    }
+
+    /**
+     * Center of the item at the passed index, in the coordinator coordinates
+     */
+    float[] itemCenter(final int index) {
+        final float itemWidth = (float) navigation.getWidth() / navigation.getMenuItemCount();
+        return new float[]{
+            navigation.getLeft() + itemWidth * (index + 0.5f),
+            navigation.getTop() + navigation.getTranslationY() + navigation.getHeight() / 2f
+        };
+    }
+
+    /**
+     * Linear swipe script, with the same interpolation of the espresso CustomSwipe
+     */
+    static float[][] swipe(final float[] start, final float[] end) {
+        final float[][] script = new float[SWIPE_EVENT_COUNT + 2][];
+        script[0] = new float[]{DOWN, start[0], start[1]};
+
+        for (int i = 1; i < SWIPE_EVENT_COUNT + 1; i++) {
+            script[i] = new float[]{
+                MOVE,
+                start[0] + (end[0] - start[0]) * i / (SWIPE_EVENT_COUNT + 2f),
+                start[1] + (end[1] - start[1]) * i / (SWIPE_EVENT_COUNT + 2f)
+            };
+        }
+
+        script[SWIPE_EVENT_COUNT + 1] = new float[]{UP, end[0], end[1]};
+        return script;
+    }
+
+    static float[][] tap(final float[] position) {
+        return new float[][]{{DOWN, position[0], position[1]}, {UP, position[0], position[1]}};
+    }
+
+    /**
+     * Nested scroll script: <code>count</code> events of <code>dy</code> pixels, then the end of the scroll
+     */
+    static float[][] scroll(final int dy, final int count) {
+        final float[][] script = new float[count + 1][];
+        for (int i = 0; i < count; i++) {
+            script[i] = new float[]{SCROLL, dy};
+        }
+        script[count] = new float[]{STOP};
+        return script;
+    }
+
+    void replay(final float[][] script) {
+        for (float[] step : script) {
+            switch ((int) step[0]) {
+                case DOWN:
+                    downTime = clock.uptimeMillis();
+                    touch(MotionEvent.ACTION_DOWN, step[1], step[2]);
+                    break;
+                case MOVE:
+                    touch(MotionEvent.ACTION_MOVE, step[1], step[2]);
+                    break;
+                case UP:
+                    touch(MotionEvent.ACTION_UP, step[1], step[2]);
+                    break;
+                case SCROLL:
+                    nestedScroll((int) step[1]);
+                    break;
+                case STOP:
+                    stopNestedScroll();
+                    break;
+                case FRAMES:
+                    for (int i = 0; i < (int) step[1]; i++) {
+                        frame();
+                    }
+                    continue;
+                default:
+                    throw new IllegalArgumentException("unknown step: " + step[0]);
+            }
+            frame();
+        }
+    }
+
+    private void touch(final int action, final float x, final float y) {
+        final MotionEvent event = MotionEvent.obtain(downTime, clock.uptimeMillis(), action, x, y, 0);
+        coordinator.dispatchTouchEvent(event);
+        event.recycle();
+    }
+
+    /**
+     * Dispatches a nested scroll event, starting the nested scroll if needed. No frame is stepped.
+     */
+    void nestedScroll(final int dy) {
+        if (!scrolling) {
+            scrolling = true;
+            coordinator.onStartNestedScroll(scrollingView, scrollingView, ViewCompat.SCROLL_AXIS_VERTICAL);
+            coordinator.onNestedScrollAccepted(scrollingView, scrollingView, ViewCompat.SCROLL_AXIS_VERTICAL);
+        }
+
+        consumed[0] = 0;
+        consumed[1] = 0;
+        coordinator.onNestedPreScroll(scrollingView, 0, dy, consumed);
+        coordinator.onNestedScroll(scrollingView, 0, dy - consumed[1], 0, 0);
+    }
+
+    void stopNestedScroll() {
+        if (scrolling) {
+            scrolling = false;
+            coordinator.onStopNestedScroll(scrollingView);
+        }
+    }
+
+    /**
+     * Steps one frame and records its work. Counters include the input dispatched since the previous frame.
+     */
+    void frame() {
+        final long start = System.nanoTime();
+
+        clock.advance(FRAME_MILLIS);
+        ShadowLooper.idleMainLooper(FRAME_MILLIS);
+
+        if (coordinator.isLayoutRequested()) {
+            coordinator.measure(
+                View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY)
+            );
+            coordinator.layout(0, 0, WIDTH, HEIGHT);
+        }
+        coordinator.draw(canvas);
+
+        maxFrameNanos = Math.max(maxFrameNanos, System.nanoTime() - start);
+        maxRequestLayout = Math.max(maxRequestLayout, coordinator.requestLayoutCount);
+        maxLayout = Math.max(maxLayout, coordinator.layoutCount);
+        maxInvalidate = Math.max(maxInvalidate, coordinator.invalidateCount);
+        totalRequestLayout += coordinator.requestLayoutCount;
+        totalLayout += coordinator.layoutCount;
+        totalInvalidate += coordinator.invalidateCount;
+        trace.append(String.format(Locale.US, "%d: requestLayout=%d layout=%d invalidate=%d translation=%.2f%n",
+            frames, coordinator.requestLayoutCount, coordinator.layoutCount, coordinator.invalidateCount,
+            navigation.getTranslationY()));
+
+        frames++;
+        coordinator.reset();
+    }
+
+    /**
+     * Steps frames until no animation is running
+     */
+    void settle() {
+        for (int i = 0; i < MAX_SETTLE_FRAMES && (clock.getPendingCount() > 0 || i == 0); i++) {
+            frame();
+        }
+    }
+
+    /**
+     * Clears the recorded trace, the worst case values and the totals
+     */
+    void reset() {
+        trace.setLength(0);
+        frames = 0;
+        maxRequestLayout = 0;
+        maxLayout = 0;
+        maxInvalidate = 0;
+        maxFrameNanos = 0;
+        totalRequestLayout = 0;
+        totalLayout = 0;
+        totalInvalidate = 0;
+    }
+
+    String getTrace() {
+        return trace.toString();
+    }
+
+    int getFrames() {
+        return frames;
+    }
+
+    int getMaxRequestLayout() {
+        return maxRequestLayout;
+    }
+
+    int getMaxLayout() {
+        return maxLayout;
+    }
+
+    int getMaxInvalidate() {
+        return maxInvalidate;
+    }
+
+    int getTotalRequestLayout() {
+        return totalRequestLayout;
+    }
+
+    int getTotalLayout() {
+        return totalLayout;
+    }
+
+    int getTotalInvalidate() {
+        return totalInvalidate;
+    }
+
+    /**
+     * Worst frame time. Measured on the JVM, only meaningful to compare runs on the same machine.
+     */
+    long getMaxFrameNanos() {
+        return maxFrameNanos;
+    }
+}
@@ -0,0 +1,109 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import it.sephiroth.android.library.bottonnavigation.BuildConfig;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Scripted interactions replayed frame by frame: the per-frame work must be within budget
+ * and identical from run to run.
+ */
+@RunWith (RobolectricTestRunner.class)
+@Config (constants = BuildConfig.class, sdk = 25)
+public class ReplayTest {
+    private static final int SCROLL_DELTA = 12;
+    private static final int SCROLL_EVENTS = 20;
+
+    private ReplayHarness harness;
+
+    @After
+    public void tearDown() throws Exception {
+        if (null != harness) {
+            harness.release();
+        }
+    }
+
+    @Test
+    public void selectionIsDeterministic() throws Exception {
+        final String first = replaySelection();
+        final String second = replaySelection();
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void selectionFrameBudget() throws Exception {
+        replaySelection();
+
+        // the selection transition sets the items bounds directly: at most the final layout pass
+        assertTrue("layout passes per frame: " + harness.getMaxLayout(), harness.getMaxLayout() <= 1);
+        assertTrue("layout requests per frame: " + harness.getMaxRequestLayout(), harness.getMaxRequestLayout() <= 1);
+    }
+
+    @Test
+    public void selectionWithoutAnimations() throws Exception {
+        harness = new ReplayHarness(4);
+        harness.clock.setDurationScale(0);
+
+        harness.replay(ReplayHarness.tap(harness.itemCenter(2)));
+
+        // with the animator duration scale set to 0 the transition jumps to its end
+        assertEquals(2, harness.navigation.getSelectedIndex());
+        assertEquals("pending frames", 0, harness.clock.getPendingCount());
+    }
+
+    @Test
+    public void nestedScrollIsDeterministic() throws Exception {
+        final String first = replayNestedScroll();
+        final String second = replayNestedScroll();
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void nestedScrollFrameBudget() throws Exception {
+        harness = new ReplayHarness(4);
+
+        harness.replay(ReplayHarness.scroll(SCROLL_DELTA, SCROLL_EVENTS));
+        harness.settle();
+        assertTrue("navigation should be hidden", harness.navigation.getTranslationY() > 0);
+
+        harness.replay(ReplayHarness.scroll(-SCROLL_DELTA, SCROLL_EVENTS));
+        harness.settle();
+        assertEquals(0, harness.navigation.getTranslationY(), 0);
+
+        // hide and show only translate the navigation
+        assertEquals("layout passes", 0, harness.getMaxLayout());
+        assertEquals("layout requests", 0, harness.getMaxRequestLayout());
+    }
+
+    private String replaySelection() {
+        if (null != harness) {
+            harness.release();
+        }
+        harness = new ReplayHarness(4);
+        harness.replay(ReplayHarness.swipe(harness.itemCenter(0), harness.itemCenter(3)));
+        harness.replay(ReplayHarness.tap(harness.itemCenter(2)));
+        harness.settle();
+        harness.replay(ReplayHarness.tap(harness.itemCenter(0)));
+        harness.settle();
+        return harness.getTrace();
+    }
+
+    private String replayNestedScroll() {
+        if (null != harness) {
+            harness.release();
+        }
+        harness = new ReplayHarness(4);
+        harness.replay(ReplayHarness.scroll(SCROLL_DELTA, SCROLL_EVENTS));
+        harness.settle();
+        harness.replay(ReplayHarness.scroll(-SCROLL_DELTA, SCROLL_EVENTS));
+        harness.settle();
+        return harness.getTrace();
+    }
+}
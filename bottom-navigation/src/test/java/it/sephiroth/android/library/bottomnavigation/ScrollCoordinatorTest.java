@@ -0,0 +1,144 @@
+package it.sephiroth.android.library.bottomnavigation;
+
+import android.app.Activity;
+import android.view.Gravity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+
+import it.sephiroth.android.library.bottonnavigation.BuildConfig;
+import it.sephiroth.android.library.bottonnavigation.R;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Hide on scroll of a BottomNavigation hosted in a plain FrameLayout, driven by a {@link ScrollCoordinator}
+ */
+@RunWith (RobolectricTestRunner.class)
+@Config (constants = BuildConfig.class, sdk = 25)
+public class ScrollCoordinatorTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int TOOLBAR_HEIGHT = 168;
+    private static final int SCROLL_DELTA = 1000;
+    private static final int MAX_FRAMES = 600;
+
+    private final ManualAnimationClock clock = new ManualAnimationClock(ReplayHarness.START_TIME);
+    private FrameLayout root;
+    private BottomNavigation navigation;
+    private View toolbar;
+    private ScrollCoordinator coordinator;
+
+    @Before
+    public void setUp() throws Exception {
+        AnimationClock.set(clock);
+
+        final ActivityController<Activity> controller = Robolectric.buildActivity(Activity.class);
+        final Activity activity = controller.get();
+        activity.setTheme(R.style.Theme_AppCompat_Light);
+        controller.create();
+
+        root = new FrameLayout(activity);
+        toolbar = new View(activity);
+        root.addView(toolbar, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, TOOLBAR_HEIGHT));
+
+        navigation = new BottomNavigation(activity);
+        root.addView(navigation, new FrameLayout.LayoutParams(
+            ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT, Gravity.BOTTOM));
+
+        activity.setContentView(root);
+        controller.start().resume().visible();
+
+        final BottomNavigationItem[] items = new BottomNavigationItem[3];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new BottomNavigationItem(i + 1, R.drawable.bbn_top_shadow, "Item " + i);
+        }
+        final MenuParser.Menu menu = new MenuParser.Menu(activity);
+        menu.setItems(items);
+        navigation.setItems(menu);
+
+        coordinator = new ScrollCoordinator(navigation).setToolbar(toolbar);
+        layout();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        AnimationClock.set(null);
+    }
+
+    @Test
+    public void expandedByDefault() throws Exception {
+        assertTrue(navigation.isExpanded());
+        assertEquals(0, navigation.getTranslationY(), 0);
+    }
+
+    @Test
+    public void setExpandedWithoutBehavior() throws Exception {
+        navigation.setExpanded(false, false);
+        assertFalse(navigation.isExpanded());
+        assertFalse(coordinator.isExpanded());
+        assertEquals(getHiddenOffset(), navigation.getTranslationY(), 0);
+        assertEquals(-TOOLBAR_HEIGHT, toolbar.getTranslationY(), 0);
+
+        navigation.setExpanded(true, false);
+        assertTrue(navigation.isExpanded());
+        assertEquals(0, navigation.getTranslationY(), 0);
+        assertEquals(0, toolbar.getTranslationY(), 0);
+    }
+
+    @Test
+    public void scrollHidesAndShows() throws Exception {
+        coordinator.dispatchScroll(SCROLL_DELTA);
+        assertFalse(navigation.isExpanded());
+        settle();
+        assertEquals(getHiddenOffset(), navigation.getTranslationY(), 0);
+        assertEquals(-TOOLBAR_HEIGHT, toolbar.getTranslationY(), 0);
+
+        coordinator.dispatchScroll(-SCROLL_DELTA);
+        assertTrue(navigation.isExpanded());
+        settle();
+        assertEquals(0, navigation.getTranslationY(), 0);
+        assertEquals(0, toolbar.getTranslationY(), 0);
+    }
+
+    @Test
+    public void disabled() throws Exception {
+        coordinator.setEnabled(false);
+        coordinator.dispatchScroll(SCROLL_DELTA);
+        settle();
+        assertTrue(navigation.isExpanded());
+        assertEquals(0, navigation.getTranslationY(), 0);
+    }
+
+    /**
+     * Same offset of the BottomBehavior: the navigation and the system navigation bar below it
+     */
+    private int getHiddenOffset() {
+        return navigation.getNavigationHeight() + navigation.getBottomInset();
+    }
+
+    private void layout() {
+        root.measure(
+            View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+            View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY)
+        );
+        root.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    private void settle() {
+        for (int i = 0; i < MAX_FRAMES && clock.getPendingCount() > 0; i++) {
+            clock.advance(ReplayHarness.FRAME_MILLIS);
+        }
+    }
+}